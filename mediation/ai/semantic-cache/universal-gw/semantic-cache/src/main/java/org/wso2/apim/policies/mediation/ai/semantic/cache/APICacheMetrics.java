@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Semantic cache metrics of a single API, recorded with lock-free counters and histograms.
+ */
+public class APICacheMetrics implements APICacheMetricsMBean {
+
+    private final LongAdder exactMatchHits = new LongAdder();
+    private final LongAdder semanticHits = new LongAdder();
+    private final LongAdder coalescedHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder noStoreSkips = new LongAdder();
+    private final LongAdder nonOkSkips = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder bytesStored = new LongAdder();
+    private final LongAdder droppedStores = new LongAdder();
+    private final LongAdder failedStores = new LongAdder();
+    private final LongAdder coalescedStores = new LongAdder();
+    private final LongAdder shadowLookups = new LongAdder();
+    private final LongAdder shadowOnlyHits = new LongAdder();
+    private final LongAdder servedOnlyHits = new LongAdder();
+    private final LatencyHistogram embeddingTime = new LatencyHistogram();
+    private final LatencyHistogram retrieveTime = new LatencyHistogram();
+    private final LatencyHistogram storeTime = new LatencyHistogram();
+
+    public void recordExactMatchHit(long bytes) {
+        exactMatchHits.increment();
+        bytesServed.add(bytes);
+    }
+
+    public void recordSemanticHit(long bytes) {
+        semanticHits.increment();
+        bytesServed.add(bytes);
+    }
+
+    public void recordCoalescedHit(long bytes) {
+        coalescedHits.increment();
+        bytesServed.add(bytes);
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordNoStoreSkip() {
+        noStoreSkips.increment();
+    }
+
+    public void recordNonOkSkip() {
+        nonOkSkips.increment();
+    }
+
+    public void recordEmbeddingTime(long nanos) {
+        embeddingTime.record(nanos);
+    }
+
+    public void recordRetrieveTime(long nanos) {
+        retrieveTime.record(nanos);
+    }
+
+    public void recordStore(long nanos, long bytes) {
+        stores.increment();
+        bytesStored.add(bytes);
+        storeTime.record(nanos);
+    }
+
+    public void recordDroppedStore() {
+        droppedStores.increment();
+    }
+
+    public void recordFailedStore() {
+        failedStores.increment();
+    }
+
+    public void recordCoalescedStore() {
+        coalescedStores.increment();
+    }
+
+    public void recordShadowLookup(boolean servedHit, boolean shadowHit) {
+        shadowLookups.increment();
+        if (shadowHit && !servedHit) {
+            shadowOnlyHits.increment();
+        } else if (servedHit && !shadowHit) {
+            servedOnlyHits.increment();
+        }
+    }
+
+    @Override
+    public long getExactMatchHits() {
+        return exactMatchHits.sum();
+    }
+
+    @Override
+    public long getSemanticHits() {
+        return semanticHits.sum();
+    }
+
+    @Override
+    public long getCoalescedHits() {
+        return coalescedHits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = getExactMatchHits() + getSemanticHits() + getCoalescedHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public long getNoStoreSkips() {
+        return noStoreSkips.sum();
+    }
+
+    @Override
+    public long getNonOkSkips() {
+        return nonOkSkips.sum();
+    }
+
+    @Override
+    public long getStores() {
+        return stores.sum();
+    }
+
+    @Override
+    public long getBytesServed() {
+        return bytesServed.sum();
+    }
+
+    @Override
+    public long getBytesStored() {
+        return bytesStored.sum();
+    }
+
+    @Override
+    public long getDroppedStores() {
+        return droppedStores.sum();
+    }
+
+    @Override
+    public long getFailedStores() {
+        return failedStores.sum();
+    }
+
+    @Override
+    public long getCoalescedStores() {
+        return coalescedStores.sum();
+    }
+
+    @Override
+    public double getEmbeddingTimeMean() {
+        return embeddingTime.getMeanMillis();
+    }
+
+    @Override
+    public double getEmbeddingTime95thPercentile() {
+        return embeddingTime.getPercentileMillis(95);
+    }
+
+    @Override
+    public double getRetrieveTimeMean() {
+        return retrieveTime.getMeanMillis();
+    }
+
+    @Override
+    public double getRetrieveTime95thPercentile() {
+        return retrieveTime.getPercentileMillis(95);
+    }
+
+    @Override
+    public double getRetrieveTime99thPercentile() {
+        return retrieveTime.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getStoreTimeMean() {
+        return storeTime.getMeanMillis();
+    }
+
+    @Override
+    public double getStoreTime95thPercentile() {
+        return storeTime.getPercentileMillis(95);
+    }
+
+    @Override
+    public long getShadowLookups() {
+        return shadowLookups.sum();
+    }
+
+    @Override
+    public long getShadowOnlyHits() {
+        return shadowOnlyHits.sum();
+    }
+
+    @Override
+    public long getServedOnlyHits() {
+        return servedOnlyHits.sum();
+    }
+
+    @Override
+    public void reset() {
+        exactMatchHits.reset();
+        semanticHits.reset();
+        coalescedHits.reset();
+        misses.reset();
+        noStoreSkips.reset();
+        nonOkSkips.reset();
+        stores.reset();
+        bytesServed.reset();
+        bytesStored.reset();
+        droppedStores.reset();
+        failedStores.reset();
+        coalescedStores.reset();
+        shadowLookups.reset();
+        shadowOnlyHits.reset();
+        servedOnlyHits.reset();
+        embeddingTime.reset();
+        retrieveTime.reset();
+        storeTime.reset();
+    }
+}
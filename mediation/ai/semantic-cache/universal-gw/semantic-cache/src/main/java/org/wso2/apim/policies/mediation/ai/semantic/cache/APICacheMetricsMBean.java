@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+/**
+ * JMX view of the semantic cache metrics of a single API.
+ * Latencies are reported in milliseconds.
+ */
+public interface APICacheMetricsMBean {
+
+    long getExactMatchHits();
+
+    long getSemanticHits();
+
+    long getCoalescedHits();
+
+    long getMisses();
+
+    double getHitRatio();
+
+    long getNoStoreSkips();
+
+    long getNonOkSkips();
+
+    long getStores();
+
+    long getBytesServed();
+
+    long getBytesStored();
+
+    long getDroppedStores();
+
+    long getFailedStores();
+
+    long getCoalescedStores();
+
+    double getEmbeddingTimeMean();
+
+    double getEmbeddingTime95thPercentile();
+
+    double getRetrieveTimeMean();
+
+    double getRetrieveTime95thPercentile();
+
+    double getRetrieveTime99thPercentile();
+
+    double getStoreTimeMean();
+
+    double getStoreTime95thPercentile();
+
+    long getShadowLookups();
+
+    long getShadowOnlyHits();
+
+    long getServedOnlyHits();
+
+    void reset();
+}
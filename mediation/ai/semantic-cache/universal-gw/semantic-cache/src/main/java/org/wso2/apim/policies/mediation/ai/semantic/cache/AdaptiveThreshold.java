@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Similarity threshold that adapts to a target hit rate.
+ * <p>
+ * The outcomes of the most recent vector database lookups are kept in a sliding window. Whenever a
+ * quarter of the window has been replaced, the hit rate over the window is compared with the target:
+ * a hit rate below the target widens the threshold by one step and a hit rate above it narrows the
+ * threshold by one step, always staying within the operator-set bounds. The vector database does not
+ * report match distances, so the observed hit rate is the feedback signal.
+ */
+public class AdaptiveThreshold {
+
+    private static final Log logger = LogFactory.getLog(AdaptiveThreshold.class);
+
+    /**
+     * Number of steps between the lower and upper bound.
+     */
+    private static final int STEPS = 20;
+
+    /**
+     * Deviation from the target hit rate that is tolerated without adjusting the threshold.
+     */
+    private static final double TOLERANCE = 0.02;
+
+    private final String name;
+    private final double min;
+    private final double max;
+    private final double step;
+    private final double targetHitRate;
+    private final boolean[] window;
+    private final int adjustEvery;
+
+    private int position;
+    private int filled;
+    private int hits;
+    private int sinceAdjustment;
+    private volatile double current;
+
+    /**
+     * Creates an adaptive threshold.
+     *
+     * @param name          name used in log messages, such as the cache partition
+     * @param initial       the initial threshold, clamped to the bounds
+     * @param min           the lower bound of the threshold
+     * @param max           the upper bound of the threshold
+     * @param targetHitRate the target hit rate, between 0 and 1
+     * @param windowSize    the number of lookups in the sliding window
+     */
+    public AdaptiveThreshold(String name, double initial, double min, double max, double targetHitRate,
+                             int windowSize) {
+        this.name = name;
+        this.min = Math.min(min, max);
+        this.max = Math.max(min, max);
+        this.step = (this.max - this.min) / STEPS;
+        this.targetHitRate = targetHitRate;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.adjustEvery = Math.max(1, window.length / 4);
+        this.current = Math.min(this.max, Math.max(this.min, initial));
+    }
+
+    /**
+     * @return the threshold to use for the next lookup
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * Records the outcome of a lookup made with the current threshold.
+     *
+     * @param hit whether the lookup returned a cached response
+     */
+    public synchronized void record(boolean hit) {
+        if (filled == window.length) {
+            if (window[position]) {
+                hits--;
+            }
+        } else {
+            filled++;
+        }
+        window[position] = hit;
+        if (hit) {
+            hits++;
+        }
+        position = (position + 1) % window.length;
+
+        if (++sinceAdjustment < adjustEvery || filled < window.length) {
+            return;
+        }
+        sinceAdjustment = 0;
+        double hitRate = (double) hits / filled;
+        double adjusted = current;
+        if (hitRate < targetHitRate - TOLERANCE) {
+            adjusted = Math.min(max, current + step);
+        } else if (hitRate > targetHitRate + TOLERANCE) {
+            adjusted = Math.max(min, current - step);
+        }
+        if (adjusted != current) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Adjusting semantic cache threshold of " + name + " from " + current + " to "
+                        + adjusted + " (hit rate " + hitRate + ", target " + targetHitRate + ").");
+            }
+            current = adjusted;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.VectorDBProviderService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded write-behind batcher that stores cacheable responses in the vector database off the
+ * response path.
+ * <p>
+ * Store requests are queued without blocking the mediation thread. A single worker thread collects
+ * them into batches, flushing when either the batch size is reached or the flush interval has passed
+ * since the first request of the batch. Requests with the same key (API and request content) in one
+ * batch are coalesced so that a burst of identical misses results in a single vector. When the queue
+ * is full, new store requests are dropped and counted rather than applying backpressure to clients,
+ * since a missed cache write only costs a future cache miss. Dropped, failed and coalesced writes are
+ * recorded in the {@link APICacheMetrics} of the API they belong to.
+ */
+public class AsyncCacheWriter {
+
+    private static final Log logger = LogFactory.getLog(AsyncCacheWriter.class);
+
+    /**
+     * How long an idle worker waits for a write before checking whether it has been shut down.
+     */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final VectorDBProviderService vectorDBProvider;
+    private final BlockingQueue<PendingStore> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean abandoned;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Represents a single queued vector database write.
+     */
+    private static class PendingStore {
+        private final String key;
+        private final double[] embeddings;
+        private final CacheableResponse response;
+        private final Map<String, String> filter;
+        private final APICacheMetrics metrics;
+
+        PendingStore(String key, double[] embeddings, CacheableResponse response, Map<String, String> filter,
+                     APICacheMetrics metrics) {
+            this.key = key;
+            this.embeddings = embeddings;
+            this.response = response;
+            this.filter = filter;
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * Creates and starts a writer.
+     *
+     * @param vectorDBProvider    the vector database to write to
+     * @param queueSize           the maximum number of pending writes
+     * @param batchSize           the number of writes that triggers a flush
+     * @param flushIntervalMillis the maximum time a write waits for its batch to fill up
+     */
+    public AsyncCacheWriter(VectorDBProviderService vectorDBProvider, int queueSize, int batchSize,
+                            long flushIntervalMillis) {
+        this.vectorDBProvider = vectorDBProvider;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(0, flushIntervalMillis);
+        this.worker = new Thread(this::run, "SemanticCacheWriter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a response for storage without blocking.
+     *
+     * @param key        the coalescing key of the write, or null if the write must not be coalesced
+     * @param embeddings the request embeddings to store the response against
+     * @param response   the response to store
+     * @param filter     the vector database filter
+     * @param metrics    the metrics to record the write in, or null
+     * @return {@code true} if queued, {@code false} if dropped because the writer is full or stopped
+     */
+    public boolean submit(String key, double[] embeddings, CacheableResponse response,
+                          Map<String, String> filter, APICacheMetrics metrics) {
+        if (running && queue.offer(new PendingStore(key, embeddings, response, filter, metrics))) {
+            submitted.incrementAndGet();
+            return true;
+        }
+        long droppedCount = dropped.incrementAndGet();
+        if (metrics != null) {
+            metrics.recordDroppedStore();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Semantic cache write queue is full - dropping cache write. Total dropped: "
+                    + droppedCount);
+        }
+        return false;
+    }
+
+    /**
+     * Stops accepting writes and waits up to the given time for the worker to write out the requests that
+     * are already queued. The worker is then interrupted and the requests still queued are discarded.
+     *
+     * @param timeoutMillis the maximum time to wait for the queue to drain
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            worker.join(Math.max(1, timeoutMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            logger.warn("Semantic cache writer did not finish within " + timeoutMillis + " ms - discarding "
+                    + queue.size() + " pending writes.");
+            abandoned = true;
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        List<PendingStore> batch = new ArrayList<>(batchSize);
+        while (!abandoned && (running || !queue.isEmpty())) {
+            try {
+                PendingStore first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                // Interrupted after the shutdown timeout
+                break;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+        // Discard whatever is left after the shutdown timeout
+        queue.drainTo(batch);
+        for (PendingStore pending : batch) {
+            recordDropped(pending);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Semantic cache writer stopped: submitted=" + submitted.get() + ", stored=" + stored.get()
+                    + ", coalesced=" + coalesced.get() + ", failed=" + failed.get() + ", dropped=" + dropped.get()
+                    + ", batches=" + batches.get());
+        }
+    }
+
+    /**
+     * Adds queued writes to the batch until it is full, the flush interval of the batch has elapsed or
+     * the writer is shut down.
+     */
+    private void fillBatch(List<PendingStore> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            // Wait in short steps so that a shutdown does not have to wait for a long flush interval
+            PendingStore next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)),
+                    TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * Coalesces writes with the same key, keeping the most recent one.
+     */
+    private Collection<PendingStore> coalesce(List<PendingStore> batch) {
+        Map<Object, PendingStore> unique = new LinkedHashMap<>();
+        for (PendingStore pending : batch) {
+            Object key = pending.key != null ? pending.key : new Object();
+            PendingStore replaced = unique.put(key, pending);
+            if (replaced != null) {
+                coalesced.incrementAndGet();
+                if (replaced.metrics != null) {
+                    replaced.metrics.recordCoalescedStore();
+                }
+            }
+        }
+        return unique.values();
+    }
+
+    private void recordDropped(PendingStore pending) {
+        dropped.incrementAndGet();
+        if (pending.metrics != null) {
+            pending.metrics.recordDroppedStore();
+        }
+    }
+
+    private void writeBatch(List<PendingStore> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batches.incrementAndGet();
+        for (PendingStore pending : coalesce(batch)) {
+            if (abandoned) {
+                recordDropped(pending);
+                continue;
+            }
+            try {
+                long start = System.nanoTime();
+                vectorDBProvider.store(pending.embeddings, pending.response, pending.filter);
+                stored.incrementAndGet();
+                if (pending.metrics != null && pending.response.getResponsePayload() != null) {
+                    pending.metrics.recordStore(System.nanoTime() - start,
+                            pending.response.getResponsePayload().length);
+                }
+            } catch (APIManagementException | RuntimeException e) {
+                failed.incrementAndGet();
+                if (pending.metrics != null) {
+                    pending.metrics.recordFailedStore();
+                }
+                logger.error("Error storing response in vector database.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.axis2.Constants;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Warm-up and snapshot support for the semantic cache.
+ * <p>
+ * Snapshots are JSON Lines files with one cached response per line. A line either carries the request
+ * embedding it was cached against, as written by {@link #export}, or the request content as a
+ * {@code prompt}, in which case it is embedded during warm-up:
+ * <pre>
+ * {"partition": "...", "contentHash": "...", "embedding": [...], "statusCode": "200",
+ *  "headers": {...}, "payload": "&lt;base64&gt;", "expiresAt": 0}
+ * {"prompt": "What is WSO2?", "response": "{\"choices\": [...]}"}
+ * </pre>
+ * Lines without a partition belong to the partition of the API that is being warmed up. The
+ * prompt must be the content the policy extracts for embedding, that is, the result of the
+ * configured JSONPath.
+ * <p>
+ * Snapshots are only read and written in the directory set by the gateway operator through the
+ * {@value SemanticCacheConstants#SNAPSHOT_DIR_PROPERTY} system property, one file per API named after
+ * the API ID. API publishers cannot choose the file, so a policy cannot read or overwrite other files
+ * on the gateway.
+ */
+public class CacheSnapshot {
+
+    private static final Log logger = LogFactory.getLog(CacheSnapshot.class);
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * API IDs are UUIDs. Anything else is not used as a file name.
+     */
+    private static final Pattern API_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /**
+     * Receives the entries loaded during warm-up.
+     */
+    public interface Loader {
+
+        /**
+         * Loads a single entry into the cache.
+         *
+         * @param partition   the cache partition of the entry, or null if the line names none
+         * @param contentHash the hash of the request content
+         * @param embeddings  the request embeddings, or null if the line carries none and no embedder is used
+         * @param response    the cached response
+         */
+        void load(String partition, String contentHash, double[] embeddings, CacheableResponse response);
+    }
+
+    /**
+     * Embeds the prompts of snapshot entries that do not carry an embedding.
+     */
+    public interface Embedder {
+
+        /**
+         * Embeds a prompt the way the policy embeds request content.
+         *
+         * @param prompt the prompt to embed
+         * @return the embedding
+         * @throws APIManagementException if the prompt cannot be embedded
+         */
+        double[] embed(String prompt) throws APIManagementException;
+    }
+
+    /**
+     * A single line of a snapshot file.
+     */
+    private static class SnapshotRecord {
+        private String partition;
+        private String prompt;
+        private String contentHash;
+        private double[] embedding;
+        private String statusCode;
+        private String statusReason;
+        private Map<String, String> headers;
+        private String payload;
+        private String response;
+        private long expiresAt;
+    }
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Loads the entries of a snapshot file. Lines are processed in batches, and the prompts of a batch
+     * are embedded in parallel.
+     *
+     * @param file              the snapshot file
+     * @param embedder          embeds prompts without an embedding, or null to load such lines without one
+     * @param parallelism       the number of prompts embedded concurrently
+     * @param batchSize         the number of lines read per batch
+     * @param loader            receives the loaded entries
+     * @return the number of loaded entries
+     * @throws IOException If the file cannot be read.
+     */
+    public static int warmUp(Path file, Embedder embedder, int parallelism, int batchSize, Loader loader)
+            throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "SemanticCacheWarmUp");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int loaded = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Callable<Boolean>> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                SnapshotRecord record;
+                try {
+                    record = GSON.fromJson(line, SnapshotRecord.class);
+                } catch (JsonParseException e) {
+                    logger.warn("Skipping malformed line " + lineNumber + " of semantic cache snapshot " + file);
+                    continue;
+                }
+                batch.add(() -> load(record, embedder, loader));
+                if (batch.size() >= batchSize) {
+                    loaded += runBatch(executor, batch);
+                    batch.clear();
+                }
+            }
+            loaded += runBatch(executor, batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Semantic cache warm-up was interrupted after " + loaded + " entries.");
+        } finally {
+            executor.shutdownNow();
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the snapshot file of the given API, in the snapshot directory configured for the gateway.
+     * A relative directory is resolved against the Carbon home directory.
+     *
+     * @param apiId the API ID
+     * @return the snapshot file, or null if no snapshot directory is configured or the API ID is not
+     * usable as a file name
+     */
+    public static Path fileFor(String apiId) {
+        String directory = System.getProperty(SemanticCacheConstants.SNAPSHOT_DIR_PROPERTY);
+        if (StringUtils.isBlank(directory) || apiId == null || !API_ID_PATTERN.matcher(apiId).matches()) {
+            return null;
+        }
+        Path root = Paths.get(directory.trim());
+        String carbonHome = System.getProperty(SemanticCacheConstants.CARBON_HOME_PROPERTY);
+        if (!root.isAbsolute() && StringUtils.isNotBlank(carbonHome)) {
+            root = Paths.get(carbonHome).resolve(root);
+        }
+        root = root.toAbsolutePath().normalize();
+        Path file = root.resolve(apiId + SemanticCacheConstants.SNAPSHOT_FILE_EXTENSION).normalize();
+        return file.getParent().equals(root) ? file : null;
+    }
+
+    /**
+     * Returns whether a snapshot directory is configured for the gateway.
+     *
+     * @return {@code true} if snapshots are enabled
+     */
+    public static boolean isEnabled() {
+        return StringUtils.isNotBlank(System.getProperty(SemanticCacheConstants.SNAPSHOT_DIR_PROPERTY));
+    }
+
+    /**
+     * Writes a snapshot of the given entries. The file is written to a new temporary file next to the
+     * target and moved into place, so that a failed export never leaves a truncated snapshot behind and
+     * concurrent exports never write to the same temporary file.
+     *
+     * @param file    the snapshot file
+     * @param entries the entries to write
+     * @throws IOException If the file cannot be written.
+     */
+    public static void export(Path file, List<ExactMatchCache.SnapshotEntry> entries) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            write(temporary, entries);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void write(Path temporary, List<ExactMatchCache.SnapshotEntry> entries) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (ExactMatchCache.SnapshotEntry entry : entries) {
+                CacheableResponse response = entry.getResponse();
+                SnapshotRecord record = new SnapshotRecord();
+                record.partition = entry.getPartitionKey();
+                record.contentHash = entry.getContentHash();
+                float[] embedding = entry.getEmbedding();
+                record.embedding = new double[embedding.length];
+                for (int i = 0; i < embedding.length; i++) {
+                    record.embedding[i] = embedding[i];
+                }
+                record.statusCode = response.getStatusCode();
+                record.statusReason = response.getStatusReason();
+                if (response.getHeaderProperties() != null) {
+                    record.headers = new TreeMap<>();
+                    for (Map.Entry<String, Object> header : response.getHeaderProperties().entrySet()) {
+                        if (header.getValue() != null) {
+                            record.headers.put(header.getKey(), String.valueOf(header.getValue()));
+                        }
+                    }
+                }
+                record.payload = Base64.getEncoder().encodeToString(response.getResponsePayload());
+                record.expiresAt = response.getExpiresAt();
+                writer.write(GSON.toJson(record));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static int runBatch(ExecutorService executor, List<Callable<Boolean>> batch)
+            throws InterruptedException {
+        int loaded = 0;
+        for (Future<Boolean> result : executor.invokeAll(batch)) {
+            try {
+                if (Boolean.TRUE.equals(result.get())) {
+                    loaded++;
+                }
+            } catch (ExecutionException e) {
+                logger.warn("Failed to load semantic cache snapshot entry.", e.getCause());
+            }
+        }
+        return loaded;
+    }
+
+    private static boolean load(SnapshotRecord record, Embedder embedder, Loader loader)
+            throws APIManagementException {
+        if (record.expiresAt > 0 && System.currentTimeMillis() >= record.expiresAt) {
+            return false;
+        }
+        CacheableResponse response = new CacheableResponse();
+        if (record.payload != null) {
+            response.setResponsePayload(Base64.getDecoder().decode(record.payload));
+        } else if (record.response != null) {
+            response.setResponsePayload(record.response.getBytes(StandardCharsets.UTF_8));
+        } else {
+            return false;
+        }
+        response.setStatusCode(record.statusCode != null ? record.statusCode : SemanticCacheConstants.STATUS_CODE_OK);
+        response.setStatusReason(record.statusReason);
+        response.setExpiresAt(record.expiresAt);
+        Map<String, Object> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (record.headers != null) {
+            headers.putAll(record.headers);
+        } else {
+            headers.put(SemanticCacheConstants.CONTENT_TYPE, SemanticCacheConstants.JSON_CONTENT_TYPE);
+        }
+        if (!headers.containsKey(Constants.Configuration.MESSAGE_TYPE)) {
+            headers.put(Constants.Configuration.MESSAGE_TYPE, headers.get(SemanticCacheConstants.CONTENT_TYPE));
+        }
+        response.setHeaderProperties(headers);
+
+        String contentHash = record.contentHash;
+        if (contentHash == null) {
+            if (StringUtils.isBlank(record.prompt)) {
+                return false;
+            }
+            boolean streaming = EventStreamSupport.isEventStreamResponse(headers);
+            contentHash = ExactMatchCache.hashContent(
+                    streaming ? SemanticCacheConstants.STREAMING_KEY_PREFIX + record.prompt : record.prompt);
+        }
+        double[] embeddings = record.embedding;
+        if (embeddings == null && embedder != null && StringUtils.isNotBlank(record.prompt)) {
+            embeddings = embedder.embed(record.prompt);
+        }
+        String partition = StringUtils.isNotBlank(record.partition) ? record.partition : null;
+        loader.load(partition, contentHash, embeddings, response);
+        return true;
+    }
+}
@@ -49,6 +49,17 @@ public class CacheableResponse implements Serializable {
      */
     private String statusReason;
 
+    /**
+     * The time in milliseconds since the epoch after which the response must no longer be served,
+     * or 0 if the response does not expire.
+     */
+    private long expiresAt;
+
+    /**
+     * The encoding of the response payload, or null if the payload is stored as is.
+     */
+    private String payloadEncoding;
+
     /**
      * This method gives the cached response payload for json as a byte array
      *
@@ -117,4 +128,46 @@ public class CacheableResponse implements Serializable {
     public void setStatusReason(String statusReason) {
         this.statusReason = statusReason;
     }
+
+    /**
+     * @return the expiry time of the response in milliseconds since the epoch, or 0 if it does not expire
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Sets the expiry time of the response.
+     *
+     * @param expiresAt expiry time in milliseconds since the epoch, or 0 if the response does not expire
+     */
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the encoding of the response payload, or null if the payload is stored as is
+     */
+    public String getPayloadEncoding() {
+        return payloadEncoding;
+    }
+
+    /**
+     * Sets the encoding of the response payload.
+     *
+     * @param payloadEncoding the payload encoding, or null if the payload is stored as is
+     */
+    public void setPayloadEncoding(String payloadEncoding) {
+        this.payloadEncoding = payloadEncoding;
+    }
+
+    /**
+     * Checks whether the response has expired.
+     *
+     * @param now the current time in milliseconds since the epoch
+     * @return {@code true} if the response has an expiry time that has passed
+     */
+    public boolean isExpired(long now) {
+        return expiresAt > 0 && now >= expiresAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact binary encoding of {@link CacheableResponse}.
+ * <p>
+ * An encoded response consists of a length-prefixed header block followed by the raw payload bytes:
+ * <pre>
+ *   int    magic
+ *   int    header block length
+ *   ---- header block ----
+ *   string status code
+ *   string status reason
+ *   int    header count
+ *   string header name, string header value (repeated)
+ *   ---- payload ----
+ *   byte[] payload (remainder of the array)
+ * </pre>
+ * Strings are written as an int byte length (-1 for null) followed by their UTF-8 bytes. Since the
+ * payload is stored verbatim at a known offset, a decoded response exposes it as a view over the
+ * encoded array and can be replayed without copying or re-parsing it.
+ */
+public final class CacheableResponseCodec {
+
+    private static final int MAGIC = 0x53435231;
+    private static final int PREAMBLE_BYTES = 8;
+    private static final int NULL_LENGTH = -1;
+
+    private CacheableResponseCodec() {
+    }
+
+    /**
+     * A decoded response whose payload is a view over the encoded bytes. It is immutable, so a single
+     * instance can be served to any number of requests.
+     */
+    public static final class EncodedResponse {
+        private final byte[] data;
+        private final int payloadOffset;
+        private final String statusCode;
+        private final String statusReason;
+        private final Map<String, Object> headerProperties;
+
+        private EncodedResponse(byte[] data, int payloadOffset, String statusCode, String statusReason,
+                                Map<String, Object> headerProperties) {
+            this.data = data;
+            this.payloadOffset = payloadOffset;
+            this.statusCode = statusCode;
+            this.statusReason = statusReason;
+            this.headerProperties = headerProperties;
+        }
+
+        public String getStatusCode() {
+            return statusCode;
+        }
+
+        public String getStatusReason() {
+            return statusReason;
+        }
+
+        public Map<String, Object> getHeaderProperties() {
+            return headerProperties;
+        }
+
+        public int getPayloadLength() {
+            return data.length - payloadOffset;
+        }
+
+        /**
+         * Opens a stream over the payload bytes without copying them.
+         *
+         * @return a stream over the payload
+         */
+        public InputStream openPayload() {
+            return new ByteArrayInputStream(data, payloadOffset, data.length - payloadOffset);
+        }
+
+        /**
+         * Materializes the response as a {@link CacheableResponse}, copying the payload and headers.
+         *
+         * @return the equivalent cacheable response
+         */
+        public CacheableResponse toCacheableResponse() {
+            CacheableResponse response = new CacheableResponse();
+            byte[] payload = new byte[getPayloadLength()];
+            System.arraycopy(data, payloadOffset, payload, 0, payload.length);
+            response.setResponsePayload(payload);
+            response.setStatusCode(statusCode);
+            response.setStatusReason(statusReason);
+            Map<String, Object> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(headerProperties);
+            response.setHeaderProperties(headers);
+            return response;
+        }
+    }
+
+    /**
+     * Encodes the given response.
+     *
+     * @param response the response to encode; its payload must not be null
+     * @return the encoded bytes
+     */
+    public static byte[] encode(CacheableResponse response) {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(toBytes(response.getStatusCode()));
+        strings.add(toBytes(response.getStatusReason()));
+        Map<String, Object> headers = response.getHeaderProperties();
+        int headerCount = 0;
+        if (headers != null) {
+            for (Map.Entry<String, Object> header : headers.entrySet()) {
+                strings.add(toBytes(header.getKey()));
+                strings.add(toBytes(header.getValue() != null ? String.valueOf(header.getValue()) : null));
+                headerCount++;
+            }
+        }
+
+        int headerBlockLength = 4;
+        for (byte[] string : strings) {
+            headerBlockLength += 4 + (string != null ? string.length : 0);
+        }
+        byte[] payload = response.getResponsePayload();
+        ByteBuffer buffer = ByteBuffer.allocate(PREAMBLE_BYTES + headerBlockLength + payload.length);
+        buffer.putInt(MAGIC);
+        buffer.putInt(headerBlockLength);
+        putString(buffer, strings.get(0));
+        putString(buffer, strings.get(1));
+        buffer.putInt(headerCount);
+        for (int i = 2; i < strings.size(); i++) {
+            putString(buffer, strings.get(i));
+        }
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes the header block of an encoded response. The payload is not copied.
+     *
+     * @param data the encoded bytes
+     * @return the decoded response
+     * @throws IllegalArgumentException if the bytes are not an encoded response
+     */
+    public static EncodedResponse decode(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an encoded cacheable response");
+            }
+            int payloadOffset = PREAMBLE_BYTES + buffer.getInt();
+            String statusCode = getString(buffer);
+            String statusReason = getString(buffer);
+            int headerCount = buffer.getInt();
+            Map<String, Object> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int i = 0; i < headerCount; i++) {
+                String name = getString(buffer);
+                headers.put(name, getString(buffer));
+            }
+            if (buffer.position() != payloadOffset) {
+                throw new IllegalArgumentException("Corrupted encoded cacheable response header block");
+            }
+            return new EncodedResponse(data, payloadOffset, statusCode, statusReason,
+                    Collections.unmodifiableMap(headers));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated encoded cacheable response", e);
+        }
+    }
+
+    private static byte[] toBytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.MessageContext;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Memoizes embeddings of request content so that chained semantic policies do not embed the
+ * same text more than once.
+ * <p>
+ * Lookups go through two levels:
+ * <ul>
+ *   <li>A per-message slot stored as a message context property, keyed by embedding provider instance
+ *   and SHA-256 hash of the text. The slot only holds JDK types, so it is shared by every semantic
+ *   mediator that handles the message, regardless of the bundle it is deployed in. It is a concurrent
+ *   map, as mediators may embed on several threads for the same message.</li>
+ *   <li>A bounded memo with a TTL, keyed by embedding provider type, a per-instance identifier and
+ *   SHA-256 hash of the text. Lookups take no lock. When the memo is full, entries are evicted in
+ *   insertion order, except that an entry read since it was last considered gets a second chance.</li>
+ * </ul>
+ * <p>
+ * The memo capacity and TTL are read from the {@code apim.ai.embedding.memo.capacity} and
+ * {@code apim.ai.embedding.memo.ttl} (seconds) system properties. A capacity of 0 disables the
+ * memo while keeping the per-message slot.
+ * <p>
+ * Returned vectors are shared and must not be modified by callers.
+ */
+public class EmbeddingMemo {
+
+    private static final Log logger = LogFactory.getLog(EmbeddingMemo.class);
+
+    private static volatile EmbeddingMemo instance;
+    private static final Object LOCK = new Object();
+
+    private final ConcurrentHashMap<String, MemoEntry> memo = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final Object evictionLock = new Object();
+    private final Map<EmbeddingProviderService, Long> providerIds = new WeakHashMap<>();
+    private long nextProviderId;
+    private volatile ProviderPrefix lastProvider;
+    private final int capacity;
+    private final long ttlMillis;
+
+    /**
+     * Represents a memoized embedding with its expiry time.
+     */
+    private static class MemoEntry {
+        private final double[] embedding;
+        private final long expiresAt;
+        private volatile boolean referenced;
+
+        MemoEntry(double[] embedding, long expiresAt) {
+            this.embedding = embedding;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The key prefix of the most recently used provider instance.
+     */
+    private static class ProviderPrefix {
+        private final WeakReference<EmbeddingProviderService> provider;
+        private final String prefix;
+
+        ProviderPrefix(EmbeddingProviderService provider, String prefix) {
+            this.provider = new WeakReference<>(provider);
+            this.prefix = prefix;
+        }
+    }
+
+    private EmbeddingMemo(int capacity, long ttlMillis) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the singleton instance of the embedding memo.
+     *
+     * @return the singleton instance
+     */
+    public static EmbeddingMemo getInstance() {
+        if (instance == null) {
+            synchronized (LOCK) {
+                if (instance == null) {
+                    int capacity = Integer.getInteger(SemanticCacheConstants.EMBEDDING_MEMO_CAPACITY_PROPERTY,
+                            SemanticCacheConstants.DEFAULT_EMBEDDING_MEMO_CAPACITY);
+                    long ttlSeconds = Long.getLong(SemanticCacheConstants.EMBEDDING_MEMO_TTL_PROPERTY,
+                            SemanticCacheConstants.DEFAULT_EMBEDDING_MEMO_TTL_SECONDS);
+                    instance = new EmbeddingMemo(Math.max(0, capacity), ttlSeconds * 1000L);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the embedding of the given text, reusing a vector already computed for the current
+     * message or memoized from an earlier request before calling the embedding provider.
+     *
+     * @param provider       the embedding provider
+     * @param text           the text to embed
+     * @param messageContext the current message context, or null if there is none
+     * @return the embedding vector
+     * @throws APIManagementException if the embedding provider fails
+     */
+    public double[] getEmbedding(EmbeddingProviderService provider, String text, MessageContext messageContext)
+            throws APIManagementException {
+        String textHash = hashText(text);
+
+        Map<String, double[]> messageSlot = getMessageSlot(messageContext, provider);
+        if (messageSlot != null) {
+            double[] embedding = messageSlot.get(textHash);
+            if (embedding != null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Reusing embedding computed earlier for this message.");
+                }
+                return embedding;
+            }
+        }
+
+        String key = buildKey(provider, textHash);
+        double[] embedding = lookup(key);
+        if (embedding == null) {
+            embedding = provider.getEmbedding(text);
+            if (embedding == null) {
+                return null;
+            }
+            remember(key, embedding);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Embedding memo hit.");
+        }
+
+        if (messageSlot != null) {
+            messageSlot.put(textHash, embedding);
+        }
+        return embedding;
+    }
+
+    private double[] lookup(String key) {
+        if (capacity == 0) {
+            return null;
+        }
+        MemoEntry entry = memo.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt > 0 && System.currentTimeMillis() >= entry.expiresAt) {
+            memo.remove(key, entry);
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.embedding;
+    }
+
+    private void remember(String key, double[] embedding) {
+        if (capacity == 0) {
+            return;
+        }
+        long expiresAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0;
+        if (memo.put(key, new MemoEntry(embedding, expiresAt)) == null) {
+            evictionQueue.add(key);
+        }
+        if (memo.size() > capacity) {
+            evict();
+        }
+    }
+
+    /**
+     * Evicts entries in insertion order until the memo fits its capacity. An entry that was read since it
+     * was last considered is moved to the back of the queue instead, once. Only writers, which have just
+     * paid for an embedding call, take the eviction lock.
+     */
+    private void evict() {
+        synchronized (evictionLock) {
+            // Each queued key is considered at most twice, so the loop ends even if every entry is read
+            int budget = 2 * evictionQueue.size();
+            while (memo.size() > capacity && budget-- > 0) {
+                String candidate = evictionQueue.poll();
+                if (candidate == null) {
+                    return;
+                }
+                MemoEntry entry = memo.get(candidate);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.referenced) {
+                    entry.referenced = false;
+                    evictionQueue.add(candidate);
+                } else {
+                    memo.remove(candidate, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the per-message embeddings of the given provider, creating them on first use.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, double[]> getMessageSlot(MessageContext messageContext,
+                                                        EmbeddingProviderService provider) {
+        if (messageContext == null) {
+            return null;
+        }
+        ConcurrentMap<Object, Map<String, double[]>> slot;
+        synchronized (messageContext) {
+            Object existing = messageContext.getProperty(SemanticCacheConstants.EMBEDDING_MEMO_SLOT);
+            if (existing instanceof ConcurrentMap) {
+                slot = (ConcurrentMap<Object, Map<String, double[]>>) existing;
+            } else {
+                slot = new ConcurrentHashMap<>();
+                messageContext.setProperty(SemanticCacheConstants.EMBEDDING_MEMO_SLOT, slot);
+            }
+        }
+        return slot.computeIfAbsent(provider, key -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Builds the memo key from the provider type, an identifier of the provider instance and the text
+     * hash. Identifiers are handed out in sequence and are never reused while the provider is alive.
+     * The provider is a gateway-wide service, so its prefix is almost always the one used last, which
+     * is read without a lock.
+     */
+    private String buildKey(EmbeddingProviderService provider, String textHash) {
+        ProviderPrefix last = lastProvider;
+        if (last == null || last.provider.get() != provider) {
+            long providerId;
+            synchronized (providerIds) {
+                Long id = providerIds.get(provider);
+                if (id == null) {
+                    id = nextProviderId++;
+                    providerIds.put(provider, id);
+                }
+                providerId = id;
+            }
+            last = new ProviderPrefix(provider, provider.getType() + "#" + providerId + ":");
+            lastProvider = last;
+        }
+        return last.prefix + textHash;
+    }
+
+    private static String hashText(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+}
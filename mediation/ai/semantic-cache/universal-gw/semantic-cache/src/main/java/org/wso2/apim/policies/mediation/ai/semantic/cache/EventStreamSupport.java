@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.ds.WrappedTextNodeOMDataSourceFromReader;
+import org.apache.axis2.Constants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.transport.passthru.PassThroughConstants;
+import org.apache.synapse.transport.passthru.Pipe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.xml.namespace.QName;
+
+/**
+ * Capture and replay of server-sent event (SSE) responses, such as {@code stream: true} chat completions.
+ * <p>
+ * Event streams are handled as plain text payloads. A streamed response is relayed to the client as it
+ * arrives from the backend, while a bounded copy of the bytes is kept on the side; once the stream has
+ * been relayed completely, the copy is handed over for caching. On a hit, the cached events are written
+ * back to the client as a text payload with the original {@code text/event-stream} message type.
+ */
+public final class EventStreamSupport {
+
+    private static final Log logger = LogFactory.getLog(EventStreamSupport.class);
+
+    /**
+     * Wrapper element used by the Axis2 plain text builder and formatter.
+     */
+    private static final QName TEXT_WRAPPER = new QName("http://ws.apache.org/commons/ns/payload", "text");
+
+    private static final String STREAM_FIELD = "stream";
+
+    private EventStreamSupport() {
+    }
+
+    /**
+     * Checks whether a request payload asks for a streamed response, i.e. whether its top-level
+     * {@code stream} field is {@code true}. Fields of the same name nested in the payload, for example
+     * in message content, are not taken into account.
+     *
+     * @param payload the JSON request payload
+     * @return {@code true} if the request sets {@code "stream": true}
+     */
+    public static boolean isStreamingRequest(String payload) {
+        if (payload == null || !payload.contains("\"" + STREAM_FIELD + "\"")) {
+            return false;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return false;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (STREAM_FIELD.equals(reader.nextName())) {
+                    return reader.peek() == JsonToken.BOOLEAN && reader.nextBoolean();
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Unable to read the stream field of the request payload.", e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a content type denotes a server-sent event stream.
+     *
+     * @param contentType the content or message type, may be null
+     * @return {@code true} for {@code text/event-stream}
+     */
+    public static boolean isEventStream(Object contentType) {
+        return contentType != null && String.valueOf(contentType).trim().toLowerCase()
+                .startsWith(SemanticCacheConstants.EVENT_STREAM_CONTENT_TYPE);
+    }
+
+    /**
+     * Checks whether cached response headers describe a server-sent event stream.
+     *
+     * @param headerProperties the cached header properties, may be null
+     * @return {@code true} if the cached response is an event stream
+     */
+    public static boolean isEventStreamResponse(Map<String, Object> headerProperties) {
+        return headerProperties != null
+                && (isEventStream(headerProperties.get(Constants.Configuration.MESSAGE_TYPE))
+                || isEventStream(headerProperties.get(SemanticCacheConstants.CONTENT_TYPE)));
+    }
+
+    /**
+     * Tees the event stream of a response while it is relayed to the client.
+     * <p>
+     * The backend stream is attached to the message as a lazily read text payload, so events are written
+     * to the client as they arrive. At most {@code maxBytes} bytes are copied; a longer stream is not
+     * captured at all. Once the stream has been relayed completely, and only if it ends on an event
+     * boundary, the copy is passed to the given consumer on the thread that writes the response. A
+     * truncated stream must not be replayed to later clients.
+     *
+     * @param msgCtx     the Axis2 response message context
+     * @param maxBytes   the maximum number of bytes to capture
+     * @param onCaptured receives the assembled events once the stream is complete
+     * @return {@code true} if the stream is being teed, {@code false} if the response body is not
+     * available as a stream (e.g. because an earlier mediator has already read it)
+     */
+    public static boolean tee(org.apache.axis2.context.MessageContext msgCtx, long maxBytes,
+                              Consumer<byte[]> onCaptured) {
+        if (Boolean.TRUE.equals(msgCtx.getProperty(PassThroughConstants.MESSAGE_BUILDER_INVOKED))) {
+            return false;
+        }
+        Object pipe = msgCtx.getProperty(PassThroughConstants.PASS_THROUGH_PIPE);
+        if (!(pipe instanceof Pipe)) {
+            return false;
+        }
+        InputStream events = new CapturingInputStream(((Pipe) pipe).getInputStream(), maxBytes, onCaptured);
+        attach(msgCtx, new InputStreamReader(events, StandardCharsets.UTF_8));
+        msgCtx.setProperty(PassThroughConstants.MESSAGE_BUILDER_INVOKED, Boolean.TRUE);
+        return true;
+    }
+
+    /**
+     * Replaces the message body with a cached event stream.
+     *
+     * @param msgCtx the Axis2 message context
+     * @param events the cached events
+     */
+    public static void replay(org.apache.axis2.context.MessageContext msgCtx, InputStream events) {
+        attach(msgCtx, new InputStreamReader(events, StandardCharsets.UTF_8));
+    }
+
+    private static void attach(org.apache.axis2.context.MessageContext msgCtx, Reader reader) {
+        OMElement textElement = OMAbstractFactory.getOMFactory().createOMElement(
+                new WrappedTextNodeOMDataSourceFromReader(TEXT_WRAPPER, reader), TEXT_WRAPPER);
+        OMElement body = msgCtx.getEnvelope().getBody();
+        if (body.getFirstElement() != null) {
+            body.getFirstElement().detach();
+        }
+        body.addChild(textElement);
+    }
+
+    /**
+     * Stream that copies the bytes read through it into a bounded buffer and hands the copy over when the
+     * end of the stream is reached.
+     */
+    private static class CapturingInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private final Consumer<byte[]> onCaptured;
+        private ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        private boolean completed;
+
+        CapturingInputStream(InputStream delegate, long maxBytes, Consumer<byte[]> onCaptured) {
+            super(delegate);
+            this.maxBytes = maxBytes;
+            this.onCaptured = onCaptured;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                complete();
+            } else {
+                capture(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count == -1) {
+                complete();
+            } else {
+                capture(buffer, offset, count);
+            }
+            return count;
+        }
+
+        private void capture(byte[] buffer, int offset, int count) {
+            if (captured == null) {
+                return;
+            }
+            if (captured.size() + (long) count > maxBytes) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Event stream exceeds the streaming cache limit of " + maxBytes
+                            + " bytes - skipping response caching.");
+                }
+                captured = null;
+                return;
+            }
+            captured.write(buffer, offset, count);
+        }
+
+        private void complete() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            if (captured == null || captured.size() == 0) {
+                return;
+            }
+            byte[] events = captured.toByteArray();
+            captured = null;
+            if (!endsOnEventBoundary(events)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Event stream did not end on an event boundary - skipping response caching.");
+                }
+                return;
+            }
+            try {
+                onCaptured.accept(events);
+            } catch (RuntimeException e) {
+                // Caching is best effort and must not break the stream that is being relayed
+                logger.warn("Unable to cache the event stream response.", e);
+            }
+        }
+
+        private static boolean endsOnEventBoundary(byte[] events) {
+            int length = events.length;
+            return length >= 2 && events[length - 1] == '\n'
+                    && (events[length - 2] == '\n'
+                    || (length >= 4 && events[length - 2] == '\r' && events[length - 3] == '\n'
+                    && events[length - 4] == '\r'));
+        }
+    }
+}
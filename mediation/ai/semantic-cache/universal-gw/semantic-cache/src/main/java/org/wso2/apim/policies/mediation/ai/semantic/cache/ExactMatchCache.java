@@ -0,0 +1,640 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process exact-match (L1) tier placed in front of the vector database.
+ * <p>
+ * Responses are keyed by the SHA-256 hash of the content extracted for embedding, so byte-for-byte
+ * repeated prompts are answered without an embedding or vector database round trip. The cache is
+ * split into partitions, by default one per API, or finer when partition keys are configured:
+ * <ul>
+ *   <li>Level 1: Partition key → partition (bounded by maxPartitions, LRU evicted)</li>
+ *   <li>Level 2: Content hash → cached response (bounded by entries and bytes per partition,
+ *   LRU or LFU evicted, TTL expired)</li>
+ * </ul>
+ * <p>
+ * Quotas are enforced per partition, so a busy partition only evicts its own entries. All partitions
+ * together are additionally bounded by a global byte budget, set through the
+ * {@value SemanticCacheConstants#EXACT_MATCH_CACHE_MAX_BYTES_PROPERTY} system property; when it is
+ * exceeded, entries of the least recently used other partition are evicted first.
+ * <p>
+ * Lookups are lock-free: both levels are {@link ConcurrentHashMap}s, and access times are only written
+ * when they have moved on by more than {@link SemanticCacheConstants#ACCESS_TIME_GRANULARITY_MILLIS}.
+ * Adding and evicting entries are serialized on a single lock. Eviction order is kept in
+ * insertion-ordered queues that readers never touch; an entry at the head of a queue that was accessed
+ * since it was queued is moved to the back instead of being evicted, which approximates LRU order.
+ * <p>
+ * Expired entries are reported as misses when they are looked up, and dropped by a background sweeper
+ * that visits one partition at a time, so that entries which are never requested again do not hold on
+ * to the budget. The sweeper runs while at least one mediator holds the cache (see {@link #acquire()}).
+ * Entries are held in the compact binary form of {@link CacheableResponseCodec}, which detaches them
+ * from the live message. The header block is decoded once when an entry is added, and hits share the
+ * decoded entry and replay its payload without copying it. Entry sizes are the
+ * encoded length plus a fixed overhead, so large completions consume proportionally more of the budget.
+ */
+public class ExactMatchCache {
+
+    private static final Log logger = LogFactory.getLog(ExactMatchCache.class);
+
+    /**
+     * Fixed per-entry overhead (object headers, map and queue nodes, key string) used in size estimation.
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    /**
+     * Number of least recently used entries among which LFU eviction picks the least frequently used.
+     */
+    private static final int LFU_EVICTION_SAMPLE_SIZE = 16;
+
+    private static volatile ExactMatchCache instance;
+    private static final Object LOCK = new Object();
+
+    private final Object writeLock = new Object();
+    private final ConcurrentHashMap<String, Partition> cache = new ConcurrentHashMap<>();
+    /**
+     * Partition keys in eviction order, mapped to the access time each partition had when it was queued.
+     * Guarded by the write lock.
+     */
+    private final LinkedHashMap<String, Long> partitionQueue = new LinkedHashMap<>();
+    private volatile int maxPartitions;
+    private volatile long maxBytes;
+    private volatile long usedBytes;
+    private int references;
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * Eviction policy applied within a partition.
+     */
+    public enum EvictionPolicy {
+        LRU,
+        LFU;
+
+        /**
+         * Resolves a policy name, falling back to LRU for unknown values.
+         *
+         * @param name the policy name, case insensitive
+         * @return the eviction policy
+         */
+        public static EvictionPolicy fromString(String name) {
+            return name != null && LFU.name().equalsIgnoreCase(name.trim()) ? LFU : LRU;
+        }
+    }
+
+    /**
+     * Represents a cached response together with its accounting metadata.
+     */
+    private static class CacheEntry {
+        private final CacheableResponseCodec.EncodedResponse response;
+        private final float[] embedding;
+        private final long responseExpiresAt;
+        private final long sizeInBytes;
+        private final long expiresAt;
+        private volatile long lastAccessed;
+        // Incremented without synchronization; a lost update only makes the LFU count approximate
+        private volatile int hits;
+
+        CacheEntry(CacheableResponseCodec.EncodedResponse response, float[] embedding, long responseExpiresAt,
+                   long sizeInBytes, long expiresAt, long now) {
+            this.response = response;
+            this.embedding = embedding;
+            this.responseExpiresAt = responseExpiresAt;
+            this.sizeInBytes = sizeInBytes;
+            this.expiresAt = expiresAt;
+            this.lastAccessed = now;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt > 0 && now >= expiresAt;
+        }
+
+        void touch(long now) {
+            if (hits < Integer.MAX_VALUE) {
+                hits++;
+            }
+            if (now - lastAccessed >= SemanticCacheConstants.ACCESS_TIME_GRANULARITY_MILLIS) {
+                lastAccessed = now;
+            }
+        }
+    }
+
+    /**
+     * A cached response together with the request embedding it was stored against, for snapshots.
+     */
+    public static class SnapshotEntry {
+        private final String partitionKey;
+        private final String contentHash;
+        private final float[] embedding;
+        private final CacheableResponse response;
+
+        SnapshotEntry(String partitionKey, String contentHash, float[] embedding, CacheableResponse response) {
+            this.partitionKey = partitionKey;
+            this.contentHash = contentHash;
+            this.embedding = embedding;
+            this.response = response;
+        }
+
+        public String getPartitionKey() {
+            return partitionKey;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public float[] getEmbedding() {
+            return embedding;
+        }
+
+        public CacheableResponse getResponse() {
+            return response;
+        }
+    }
+
+    /**
+     * Represents a partition. The eviction queue and size are guarded by the write lock.
+     */
+    private static class Partition {
+        private final ConcurrentHashMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+        /**
+         * Content hashes in eviction order, mapped to the access time each entry had when it was queued.
+         */
+        private final LinkedHashMap<String, Long> evictionQueue = new LinkedHashMap<>();
+        private long sizeInBytes;
+        private volatile long lastAccessed;
+
+        Partition(long now) {
+            this.lastAccessed = now;
+        }
+
+        void touch(long now) {
+            if (now - lastAccessed >= SemanticCacheConstants.ACCESS_TIME_GRANULARITY_MILLIS) {
+                lastAccessed = now;
+            }
+        }
+
+        /**
+         * Removes an entry and returns the number of bytes released.
+         */
+        long remove(String contentHash) {
+            CacheEntry removed = entries.remove(contentHash);
+            if (removed == null) {
+                return 0;
+            }
+            evictionQueue.remove(contentHash);
+            sizeInBytes -= removed.sizeInBytes;
+            return removed.sizeInBytes;
+        }
+    }
+
+    private ExactMatchCache() {
+        this.maxPartitions = SemanticCacheConstants.DEFAULT_EXACT_MATCH_MAX_PARTITIONS;
+        this.maxBytes = Math.max(0, Long.getLong(SemanticCacheConstants.EXACT_MATCH_CACHE_MAX_BYTES_PROPERTY,
+                SemanticCacheConstants.DEFAULT_EXACT_MATCH_CACHE_MAX_BYTES));
+    }
+
+    /**
+     * Returns the global singleton instance of the exact-match cache.
+     *
+     * @return the singleton instance
+     */
+    public static ExactMatchCache getInstance() {
+        if (instance == null) {
+            synchronized (LOCK) {
+                if (instance == null) {
+                    instance = new ExactMatchCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a user of the cache. The expiry sweeper is started with the first user.
+     * Every call must be matched by a call to {@link #release()}.
+     */
+    public void acquire() {
+        synchronized (writeLock) {
+            if (references++ == 0) {
+                sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "SemanticCacheExpirySweeper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                sweeper.scheduleWithFixedDelay(this::purgeExpired,
+                        SemanticCacheConstants.EXPIRY_SWEEP_INTERVAL_SECONDS,
+                        SemanticCacheConstants.EXPIRY_SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Unregisters a user of the cache. The expiry sweeper is shut down with the last user, so that it
+     * does not keep the class loader of an undeployed policy alive.
+     */
+    public void release() {
+        synchronized (writeLock) {
+            if (references > 0 && --references == 0) {
+                sweeper.shutdownNow();
+                sweeper = null;
+            }
+        }
+    }
+
+    /**
+     * Updates the maximum number of partitions held by the cache.
+     *
+     * @param maxPartitions maximum number of partitions
+     */
+    public void setMaxPartitions(int maxPartitions) {
+        synchronized (writeLock) {
+            if (maxPartitions > 0) {
+                this.maxPartitions = maxPartitions;
+            }
+        }
+    }
+
+    /**
+     * Sets the global byte budget shared by all partitions. A lower budget takes effect as new entries
+     * are added.
+     *
+     * @param maxBytes the maximum number of bytes held by the cache, or 0 for no global limit
+     */
+    public void setMaxBytes(long maxBytes) {
+        synchronized (writeLock) {
+            this.maxBytes = Math.max(0, maxBytes);
+        }
+    }
+
+    /**
+     * Returns the number of bytes held by all partitions.
+     *
+     * @return the bytes held
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Retrieves the cached response for the given partition and content hash without taking a lock.
+     * Expired entries are reported as a miss and left to the sweeper.
+     *
+     * @param partitionKey the partition key
+     * @param contentHash  the SHA-256 hash of the extracted request content
+     * @return the cached response, or null if not found or expired
+     */
+    public CacheableResponseCodec.EncodedResponse get(String partitionKey, String contentHash) {
+        Partition partition = cache.get(partitionKey);
+        if (partition == null) {
+            return null;
+        }
+        CacheEntry entry = partition.entries.get(contentHash);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.isExpired(now)) {
+            return null;
+        }
+        entry.touch(now);
+        partition.touch(now);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Exact-match cache hit: partition=" + partitionKey);
+        }
+        return entry.response;
+    }
+
+    /**
+     * Adds a response to the given partition, evicting entries of that partition according to the
+     * eviction policy until it fits into the given entry and byte quotas, and entries of other partitions
+     * until all partitions fit into the global budget. Responses larger than the byte quota or the global
+     * budget are not cached.
+     *
+     * @param partitionKey the partition key
+     * @param contentHash  the SHA-256 hash of the extracted request content
+     * @param response     the response to cache
+     * @param maxBytes     the byte quota of the partition
+     * @param maxEntries   the entry quota of the partition, or a non-positive value for no limit
+     * @param ttlMillis    time to live of the entry in milliseconds, or a non-positive value for no expiry
+     * @param policy       the eviction policy of the partition
+     * @param embeddings   the request embeddings to keep for snapshots, or null
+     */
+    public void put(String partitionKey, String contentHash, CacheableResponse response, long maxBytes,
+                    int maxEntries, long ttlMillis, EvictionPolicy policy, double[] embeddings) {
+        if (response == null || response.getResponsePayload() == null) {
+            return;
+        }
+        byte[] encoded = CacheableResponseCodec.encode(response);
+        // Decoded once here, so that hits share the header block instead of decoding it again
+        CacheableResponseCodec.EncodedResponse decoded = CacheableResponseCodec.decode(encoded);
+        float[] embedding = null;
+        if (embeddings != null) {
+            embedding = new float[embeddings.length];
+            for (int i = 0; i < embeddings.length; i++) {
+                embedding[i] = (float) embeddings[i];
+            }
+        }
+        // The decoded header block is held next to the encoded one, so it is counted twice
+        long size = ENTRY_OVERHEAD_BYTES + 2L * contentHash.length() + 2L * encoded.length - decoded.getPayloadLength()
+                + (embedding != null ? 4L * embedding.length : 0);
+        long budget = this.maxBytes;
+        if (size > maxBytes || (budget > 0 && size > budget)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Response of " + size + " bytes exceeds the exact-match cache budget - not caching.");
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = ttlMillis > 0 ? now + ttlMillis : 0;
+
+        synchronized (writeLock) {
+            Partition partition = cache.get(partitionKey);
+            if (partition == null) {
+                evictLRUPartitionIfNeeded();
+                partition = new Partition(now);
+                cache.put(partitionKey, partition);
+                partitionQueue.put(partitionKey, now);
+            }
+
+            usedBytes -= partition.remove(contentHash);
+            CacheEntry entry = new CacheEntry(decoded, embedding, response.getExpiresAt(), size, expiresAt, now);
+            partition.entries.put(contentHash, entry);
+            partition.evictionQueue.put(contentHash, now);
+            partition.sizeInBytes += size;
+            usedBytes += size;
+
+            while (partition.sizeInBytes > maxBytes || (maxEntries > 0 && partition.entries.size() > maxEntries)) {
+                if (!evictEntry(partition, contentHash, policy)) {
+                    break;
+                }
+            }
+            if (budget > 0) {
+                makeRoom(partitionKey, partition, contentHash, policy, budget);
+            }
+        }
+    }
+
+    /**
+     * Returns the live entries of an API that were cached together with their request embeddings.
+     *
+     * @param apiId the API identifier; partitions of the API itself and of its partition keys are included
+     * @return the snapshot entries
+     */
+    public List<SnapshotEntry> snapshot(String apiId) {
+        List<SnapshotEntry> snapshot = new ArrayList<>();
+        String partitionPrefix = apiId + SemanticCacheConstants.PARTITION_SEPARATOR;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Partition> partition : cache.entrySet()) {
+            String partitionKey = partition.getKey();
+            if (!partitionKey.equals(apiId) && !partitionKey.startsWith(partitionPrefix)) {
+                continue;
+            }
+            for (Map.Entry<String, CacheEntry> entry : partition.getValue().entries.entrySet()) {
+                CacheEntry cacheEntry = entry.getValue();
+                if (cacheEntry.embedding == null || cacheEntry.isExpired(now)) {
+                    continue;
+                }
+                CacheableResponse response = cacheEntry.response.toCacheableResponse();
+                response.setExpiresAt(cacheEntry.responseExpiresAt);
+                snapshot.add(new SnapshotEntry(partitionKey, entry.getKey(), cacheEntry.embedding, response));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Removes expired entries from all partitions. The write lock is released between partitions so that
+     * writers are only held up for the duration of a single partition scan. Lookups are never held up.
+     *
+     * @return the number of removed entries
+     */
+    public int purgeExpired() {
+        int purged = 0;
+        for (String partitionKey : new ArrayList<>(cache.keySet())) {
+            synchronized (writeLock) {
+                Partition partition = cache.get(partitionKey);
+                if (partition == null) {
+                    continue;
+                }
+                long now = System.currentTimeMillis();
+                List<String> expired = new ArrayList<>();
+                for (Map.Entry<String, CacheEntry> entry : partition.entries.entrySet()) {
+                    if (entry.getValue().isExpired(now)) {
+                        expired.add(entry.getKey());
+                    }
+                }
+                for (String contentHash : expired) {
+                    usedBytes -= partition.remove(contentHash);
+                    purged++;
+                }
+            }
+        }
+        if (purged > 0 && logger.isDebugEnabled()) {
+            logger.debug("Purged " + purged + " expired entries from the exact-match cache.");
+        }
+        return purged;
+    }
+
+    /**
+     * Computes the SHA-256 hash of the given content.
+     *
+     * @param content the text to hash
+     * @return hex-encoded SHA-256 hash
+     */
+    public static String hashContent(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Evicts an entry other than the one just added according to the eviction policy.
+     * Must be called while holding the write lock.
+     *
+     * @return {@code true} if an entry was evicted, {@code false} if there is none to evict
+     */
+    private boolean evictEntry(Partition partition, String keep, EvictionPolicy policy) {
+        String victim = policy == EvictionPolicy.LFU
+                ? selectLFUVictim(partition, keep) : selectLRUVictim(partition, keep);
+        if (victim == null) {
+            return false;
+        }
+        usedBytes -= partition.remove(victim);
+        return true;
+    }
+
+    /**
+     * Selects the least recently used entry other than the one just added, moving entries accessed since
+     * they were queued to the back of the queue on the way. Must be called while holding the write lock.
+     */
+    private static String selectLRUVictim(Partition partition, String keep) {
+        // Two passes suffice: after the first one, every entry is queued with its latest access time
+        int remaining = 2 * partition.evictionQueue.size();
+        while (remaining-- > 0) {
+            Iterator<Map.Entry<String, Long>> iterator = partition.evictionQueue.entrySet().iterator();
+            Map.Entry<String, Long> eldest = iterator.next();
+            String contentHash = eldest.getKey();
+            CacheEntry entry = partition.entries.get(contentHash);
+            if (entry == null) {
+                iterator.remove();
+                continue;
+            }
+            if (!contentHash.equals(keep) && entry.lastAccessed <= eldest.getValue()) {
+                return contentHash;
+            }
+            iterator.remove();
+            partition.evictionQueue.put(contentHash, entry.lastAccessed);
+        }
+        return null;
+    }
+
+    /**
+     * Selects the least frequently used entry among those at the head of the eviction queue, other than
+     * the one just added. Sampling the LRU end keeps eviction cheap and lets formerly popular entries
+     * age out. Must be called while holding the write lock.
+     */
+    private static String selectLFUVictim(Partition partition, String keep) {
+        String victim = null;
+        int victimHits = Integer.MAX_VALUE;
+        int sampled = 0;
+        Iterator<String> iterator = partition.evictionQueue.keySet().iterator();
+        while (iterator.hasNext() && sampled < LFU_EVICTION_SAMPLE_SIZE) {
+            String contentHash = iterator.next();
+            CacheEntry entry = partition.entries.get(contentHash);
+            if (entry == null || contentHash.equals(keep)) {
+                continue;
+            }
+            sampled++;
+            if (entry.hits < victimHits) {
+                victim = contentHash;
+                victimHits = entry.hits;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * Evicts entries until all partitions fit into the global budget. Entries of the least recently used
+     * other partition go first; the partition being added to only gives up its own entries once no other
+     * partition holds any. Must be called while holding the write lock.
+     */
+    private void makeRoom(String partitionKey, Partition partition, String keep, EvictionPolicy policy,
+                          long budget) {
+        while (usedBytes > budget) {
+            String victimKey = peekLRUPartition(partitionKey);
+            if (victimKey == null) {
+                if (!evictEntry(partition, keep, policy)) {
+                    return;
+                }
+                continue;
+            }
+            Partition victim = cache.get(victimKey);
+            if (!evictEntry(victim, null, policy) || victim.entries.isEmpty()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Evicting LRU partition to stay within the exact-match cache budget: "
+                            + victimKey);
+                }
+                removePartition(victimKey);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used partition if at capacity.
+     * Must be called while holding the write lock.
+     */
+    private void evictLRUPartitionIfNeeded() {
+        while (cache.size() >= maxPartitions) {
+            String lruPartition = peekLRUPartition(null);
+            if (lruPartition == null) {
+                break;
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Evicting LRU partition from exact-match cache: " + lruPartition);
+            }
+            removePartition(lruPartition);
+        }
+    }
+
+    /**
+     * Returns the least recently used partition, moving partitions accessed since they were queued to the
+     * back of the queue on the way. Must be called while holding the write lock.
+     *
+     * @param excludedKey a partition that must not be returned, or null
+     * @return the LRU partition key, or null if there is no partition other than the excluded one
+     */
+    private String peekLRUPartition(String excludedKey) {
+        int remaining = 2 * partitionQueue.size();
+        while (remaining-- > 0) {
+            Iterator<Map.Entry<String, Long>> iterator = partitionQueue.entrySet().iterator();
+            Map.Entry<String, Long> eldest = iterator.next();
+            String partitionKey = eldest.getKey();
+            Partition partition = cache.get(partitionKey);
+            if (partition == null) {
+                iterator.remove();
+                continue;
+            }
+            if (!partitionKey.equals(excludedKey) && partition.lastAccessed <= eldest.getValue()) {
+                return partitionKey;
+            }
+            iterator.remove();
+            partitionQueue.put(partitionKey, partition.lastAccessed);
+        }
+        return null;
+    }
+
+    /**
+     * Removes a partition. Must be called while holding the write lock.
+     */
+    private void removePartition(String partitionKey) {
+        partitionQueue.remove(partitionKey);
+        Partition removed = cache.remove(partitionKey);
+        if (removed != null) {
+            usedBytes -= removed.sizeInBytes;
+        }
+    }
+}
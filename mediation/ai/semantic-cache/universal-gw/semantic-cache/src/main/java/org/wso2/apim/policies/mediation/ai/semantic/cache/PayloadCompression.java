@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of cached response payloads.
+ * <p>
+ * Compressed responses carry {@link SemanticCacheConstants#PAYLOAD_ENCODING_DEFLATE} as their payload
+ * encoding. Responses without an encoding, including those stored before compression was introduced,
+ * hold their payload as is.
+ */
+public final class PayloadCompression {
+
+    private static final Log logger = LogFactory.getLog(PayloadCompression.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private PayloadCompression() {
+    }
+
+    /**
+     * Returns a copy of the response with a compressed payload. The response itself is returned when its
+     * payload is smaller than the threshold or does not shrink when compressed.
+     *
+     * @param response       the response to compress
+     * @param thresholdBytes the minimum payload size worth compressing
+     * @return the compressed copy, or the response itself
+     */
+    public static CacheableResponse compress(CacheableResponse response, int thresholdBytes) {
+        byte[] payload = response.getResponsePayload();
+        if (payload == null || payload.length < thresholdBytes || response.getPayloadEncoding() != null) {
+            return response;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, payload.length / 4));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+                if (out.size() >= payload.length) {
+                    return response;
+                }
+            }
+            CacheableResponse compressed = new CacheableResponse();
+            compressed.setResponsePayload(out.toByteArray());
+            compressed.setPayloadEncoding(SemanticCacheConstants.PAYLOAD_ENCODING_DEFLATE);
+            compressed.setHeaderProperties(response.getHeaderProperties());
+            compressed.setStatusCode(response.getStatusCode());
+            compressed.setStatusReason(response.getStatusReason());
+            compressed.setExpiresAt(response.getExpiresAt());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Compressed cached response payload from " + payload.length + " to "
+                        + compressed.getResponsePayload().length + " bytes.");
+            }
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Restores the payload of a compressed response in place.
+     *
+     * @param response the response to decompress
+     * @return {@code true} if the payload is ready to be served, {@code false} if it uses an unknown
+     * encoding or cannot be decompressed
+     */
+    public static boolean decompress(CacheableResponse response) {
+        String encoding = response.getPayloadEncoding();
+        if (encoding == null || response.getResponsePayload() == null) {
+            return true;
+        }
+        if (!SemanticCacheConstants.PAYLOAD_ENCODING_DEFLATE.equals(encoding)) {
+            logger.warn("Unsupported cached payload encoding: " + encoding);
+            return false;
+        }
+        byte[] payload = response.getResponsePayload();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    logger.warn("Cached response payload is truncated.");
+                    return false;
+                }
+                out.write(buffer, 0, count);
+            }
+            response.setResponsePayload(out.toByteArray());
+            response.setPayloadEncoding(null);
+            return true;
+        } catch (DataFormatException e) {
+            logger.warn("Cached response payload cannot be decompressed.", e);
+            return false;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-flight registry for concurrent cache misses of identical requests.
+ * <p>
+ * The first request for a given key becomes the leader of a flight and proceeds to the backend.
+ * Concurrent requests with the same key become followers and wait, up to a configurable cap, for
+ * the leader's response to be cached. A flight that is older than the wait cap is considered
+ * abandoned (e.g. the leader's response never reached the mediator) and is taken over by the next
+ * request.
+ * <p>
+ * Coalescing is best-effort. Followers block the mediation thread, so the wait cap is kept short by
+ * the mediator and only helps when the backend answers within it, which is rarely the case for LLM
+ * backends. A follower waits at most until the cap has passed since the flight started, so a flight
+ * holds threads for at most one cap however late its followers arrive. The number of followers waiting
+ * at the same time is limited gateway-wide through the
+ * {@value SemanticCacheConstants#COALESCING_MAX_WAITERS_PROPERTY} system property. A follower that
+ * finds the limit reached does not wait and proceeds to the backend, so that a hot prompt with a slow
+ * backend cannot tie up the worker pool.
+ */
+public class RequestCoalescer {
+
+    private static final Log logger = LogFactory.getLog(RequestCoalescer.class);
+
+    private static volatile RequestCoalescer instance;
+    private static final Object LOCK = new Object();
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Semaphore waiters = new Semaphore(Math.max(0, Integer.getInteger(
+            SemanticCacheConstants.COALESCING_MAX_WAITERS_PROPERTY,
+            SemanticCacheConstants.DEFAULT_COALESCING_MAX_WAITERS)));
+
+    /**
+     * Represents an in-flight backend call whose response is awaited by followers.
+     */
+    public static class Flight {
+        private final String key;
+        private final long startedAt;
+        private final CompletableFuture<CacheableResponse> result = new CompletableFuture<>();
+
+        Flight(String key) {
+            this.key = key;
+            this.startedAt = System.currentTimeMillis();
+        }
+    }
+
+    private RequestCoalescer() {
+    }
+
+    /**
+     * Returns the global singleton instance of the request coalescer.
+     *
+     * @return the singleton instance
+     */
+    public static RequestCoalescer getInstance() {
+        if (instance == null) {
+            synchronized (LOCK) {
+                if (instance == null) {
+                    instance = new RequestCoalescer();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Attempts to become the leader of the flight for the given key.
+     *
+     * @param key          the coalescing key (API and request content hash)
+     * @param maxAgeMillis the age after which an existing flight is considered abandoned
+     * @return the new flight if the caller is the leader, or null if a live flight already exists
+     */
+    public Flight tryLead(String key, long maxAgeMillis) {
+        while (true) {
+            Flight created = new Flight(key);
+            Flight existing = flights.putIfAbsent(key, created);
+            if (existing == null) {
+                return created;
+            }
+            if (System.currentTimeMillis() - existing.startedAt <= maxAgeMillis) {
+                return null;
+            }
+            if (flights.replace(key, existing, created)) {
+                // Release followers of the abandoned flight so they proceed to the backend
+                existing.result.complete(null);
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Waits for the leader of the flight for the given key to complete.
+     *
+     * @param key           the coalescing key
+     * @param timeoutMillis the maximum time to wait, counted from the start of the flight
+     * @return the leader's cached response, or null if there is no flight, too many requests are waiting
+     * already, the leader's response was not cacheable, or it did not arrive in time
+     */
+    public CacheableResponse await(String key, long timeoutMillis) {
+        Flight flight = flights.get(key);
+        if (flight == null) {
+            return null;
+        }
+        long remainingMillis = flight.startedAt + timeoutMillis - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            return null;
+        }
+        if (!waiters.tryAcquire()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Too many requests are waiting for coalesced requests - not waiting.");
+            }
+            return null;
+        }
+        try {
+            return flight.result.get(remainingMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Timed out waiting for the coalesced request to complete.");
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } finally {
+            waiters.release();
+        }
+    }
+
+    /**
+     * Completes a flight with the leader's response and releases its followers.
+     *
+     * @param flight   the flight owned by the leader
+     * @param response the cached response, or null if the response was not cacheable
+     */
+    public void complete(Flight flight, CacheableResponse response) {
+        flights.remove(flight.key, flight);
+        flight.result.complete(response);
+    }
+}
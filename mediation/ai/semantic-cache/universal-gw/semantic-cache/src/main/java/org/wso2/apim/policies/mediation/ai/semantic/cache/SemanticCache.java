@@ -20,7 +20,6 @@ package org.wso2.apim.policies.mediation.ai.semantic.cache;
 
 import com.google.gson.Gson;
 import com.jayway.jsonpath.JsonPath;
-import org.apache.axiom.om.OMElement;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.commons.collections.map.MultiValueMap;
@@ -42,8 +41,23 @@ import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
 import org.wso2.carbon.apimgt.api.VectorDBProviderService;
 import org.wso2.apim.policies.mediation.ai.semantic.cache.internal.ServiceReferenceHolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -62,15 +76,58 @@ import java.util.regex.Pattern;
  * <p>
  * Configuration supports JSON path expressions to target specific parts of JSON payloads for embedding
  * generation, similarity threshold settings, and various HTTP caching headers control.
+ * <p>
+ * Byte-for-byte repeated requests are answered from an in-process exact-match tier
+ * ({@link ExactMatchCache}) before any embedding or vector database call is made.
  */
 public class SemanticCache extends AbstractMediator implements ManagedLifecycle {
     private static final Log logger = LogFactory.getLog(SemanticCache.class);
 
     private String threshold = SemanticCacheConstants.DEFAULT_THRESHOLD;
     private String jsonPath;
+    private boolean exactMatchCacheEnabled = SemanticCacheConstants.DEFAULT_EXACT_MATCH_CACHE_ENABLED;
+    private int exactMatchCacheSize = SemanticCacheConstants.DEFAULT_EXACT_MATCH_CACHE_SIZE_MB;
+    private int exactMatchCacheTTL = SemanticCacheConstants.DEFAULT_EXACT_MATCH_CACHE_TTL_SECONDS;
+    private boolean asyncStore = SemanticCacheConstants.DEFAULT_ASYNC_STORE;
+    private int asyncStoreQueueSize = SemanticCacheConstants.DEFAULT_ASYNC_STORE_QUEUE_SIZE;
+    private int asyncStoreBatchSize = SemanticCacheConstants.DEFAULT_ASYNC_STORE_BATCH_SIZE;
+    private int asyncStoreFlushInterval = SemanticCacheConstants.DEFAULT_ASYNC_STORE_FLUSH_INTERVAL_MS;
+    private boolean requestCoalescing = SemanticCacheConstants.DEFAULT_REQUEST_COALESCING;
+    private int coalescingWaitTimeout = SemanticCacheConstants.DEFAULT_COALESCING_WAIT_TIMEOUT_MS;
+    private boolean streamingCache = SemanticCacheConstants.DEFAULT_STREAMING_CACHE;
+    private int streamingCacheMaxSize = SemanticCacheConstants.DEFAULT_STREAMING_CACHE_MAX_SIZE_KB;
+    private int cacheTTL = SemanticCacheConstants.DEFAULT_CACHE_TTL_SECONDS;
+    private boolean compressPayload = SemanticCacheConstants.DEFAULT_COMPRESS_PAYLOAD;
+    private boolean adaptiveThreshold = SemanticCacheConstants.DEFAULT_ADAPTIVE_THRESHOLD;
+    private String adaptiveThresholdMin;
+    private String adaptiveThresholdMax;
+    private int targetHitRate = SemanticCacheConstants.DEFAULT_TARGET_HIT_RATE;
+    private int adaptiveWindowSize = SemanticCacheConstants.DEFAULT_ADAPTIVE_WINDOW_SIZE;
+    private String shadowThreshold;
+    private int shadowSampleRate = SemanticCacheConstants.DEFAULT_SHADOW_SAMPLE_RATE;
+    private int warmupParallelism = SemanticCacheConstants.DEFAULT_WARMUP_PARALLELISM;
+    private int compressionThreshold = SemanticCacheConstants.DEFAULT_COMPRESSION_THRESHOLD_BYTES;
+    private String partitionKeys;
+    private List<String> partitionKeyList = Collections.emptyList();
+    private int exactMatchCacheMaxEntries = SemanticCacheConstants.DEFAULT_EXACT_MATCH_CACHE_MAX_ENTRIES;
+    private String exactMatchEvictionPolicy = SemanticCacheConstants.DEFAULT_EXACT_MATCH_EVICTION_POLICY;
+    private int chunkSize = SemanticCacheConstants.DEFAULT_CHUNK_SIZE;
+    private int chunkOverlap = SemanticCacheConstants.DEFAULT_CHUNK_OVERLAP;
+    private String chunkUnit = SemanticCacheConstants.DEFAULT_CHUNK_UNIT;
 
     private VectorDBProviderService vectorDBProvider;
     private EmbeddingProviderService embeddingProvider;
+    private volatile AsyncCacheWriter asyncCacheWriter;
+    private final Object asyncCacheWriterLock = new Object();
+    private boolean destroyed;
+    private ExecutorService shadowExecutor;
+    private final Map<String, AdaptiveThreshold> adaptiveThresholds = new ConcurrentHashMap<>();
+    private final Map<String, APICacheMetrics> apiMetrics = new ConcurrentHashMap<>();
+    private double adaptiveMin;
+    private double adaptiveMax;
+    private final AtomicReference<String> snapshotApiId = new AtomicReference<>();
+    private volatile Thread warmUpThread;
+    private TextChunker.Unit chunkingUnit = TextChunker.Unit.CHARACTERS;
 
     private final Gson gson = new Gson();
 
@@ -78,7 +135,8 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
      * Initializes the SemanticCache mediator.
      * <p>
      * Sets up the embedding provider and vector database services, creates the necessary vector index
-     * with appropriate embedding dimensions, and initializes the caching infrastructure.
+     * with appropriate embedding dimensions, and initializes the caching infrastructure. When asynchronous
+     * storing is enabled, also starts the background cache writer.
      *
      * @param synapseEnvironment The Synapse environment instance.
      */
@@ -108,18 +166,172 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
             logger.error("Error initializing Semantic Cache mediator.", e);
             throw new RuntimeException("Failed to initialize Semantic Cache", e);
         }
+
+        if (exactMatchCacheEnabled) {
+            ExactMatchCache.getInstance().acquire();
+        }
+        chunkingUnit = TextChunker.Unit.fromString(chunkUnit);
+        initThresholdTuning();
         
         if (logger.isDebugEnabled()) {
             logger.debug("Semantic Cache mediator initialized successfully.");
         }
     }
 
+    /**
+     * Returns the background writer, starting it on the first store. Only the mediator instance in the
+     * response flow stores responses, so the request flow instance never starts a writer thread.
+     *
+     * @return the writer, or null if the mediator has been destroyed
+     */
+    private AsyncCacheWriter getAsyncCacheWriter() {
+        AsyncCacheWriter writer = asyncCacheWriter;
+        if (writer == null) {
+            synchronized (asyncCacheWriterLock) {
+                writer = asyncCacheWriter;
+                if (writer == null && !destroyed) {
+                    writer = new AsyncCacheWriter(vectorDBProvider, asyncStoreQueueSize, asyncStoreBatchSize,
+                            asyncStoreFlushInterval);
+                    asyncCacheWriter = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
     /**
      * Destroys the SemanticCache mediator instance and releases any allocated resources.
      */
     @Override
     public void destroy() {
-        // No specific resources to release
+        Thread warmUp = warmUpThread;
+        if (warmUp != null) {
+            warmUp.interrupt();
+            warmUpThread = null;
+        }
+        AsyncCacheWriter writer;
+        synchronized (asyncCacheWriterLock) {
+            destroyed = true;
+            writer = asyncCacheWriter;
+            asyncCacheWriter = null;
+        }
+        if (writer != null) {
+            writer.shutdown(SemanticCacheConstants.ASYNC_STORE_SHUTDOWN_TIMEOUT_MS);
+        }
+        if (shadowExecutor != null) {
+            shadowExecutor.shutdownNow();
+            shadowExecutor = null;
+        }
+        exportSnapshot();
+        if (exactMatchCacheEnabled) {
+            ExactMatchCache.getInstance().release();
+        }
+        for (String metricsApiId : apiMetrics.keySet()) {
+            SemanticCacheMetrics.getInstance().release(metricsApiId);
+        }
+        apiMetrics.clear();
+    }
+
+    /**
+     * Returns the metrics of the given API. This mediator holds a reference on them until it is destroyed.
+     */
+    private APICacheMetrics metricsFor(String apiId) {
+        return apiMetrics.computeIfAbsent(apiId, SemanticCacheMetrics.getInstance()::acquire);
+    }
+
+    /**
+     * Reads the snapshot file of the API in the background. Its entries are loaded into the exact-match tier
+     * only, as the vector database keeps its own entries across restarts and storing them again would
+     * duplicate them. The file is named after the API, which is only known once its first request arrives,
+     * so warm-up starts then. Only the mediator instance in the request flow sees requests, so the file is
+     * read once per API. Prompts are embedded so that the entries can be exported to the snapshot again.
+     */
+    private void startWarmUp(String apiId) {
+        if (!exactMatchCacheEnabled) {
+            return;
+        }
+        Path file = CacheSnapshot.fileFor(apiId);
+        if (file == null || !Files.isReadable(file)) {
+            return;
+        }
+        Thread warmUp = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                int read = CacheSnapshot.warmUp(file, prompt -> embedContent(prompt, null), warmupParallelism,
+                        SemanticCacheConstants.WARMUP_BATCH_SIZE,
+                        (partition, contentHash, embeddings, response) ->
+                                loadWarmUpEntry(apiId, partition, contentHash, embeddings, response));
+                logger.info("Semantic cache read " + read + " warm-up entries from " + file + " in "
+                        + (System.currentTimeMillis() - start) + " ms.");
+            } catch (IOException | RuntimeException e) {
+                logger.error("Semantic cache warm-up from " + file + " failed.", e);
+            }
+        }, "SemanticCacheWarmUp");
+        warmUp.setDaemon(true);
+        warmUpThread = warmUp;
+        warmUp.start();
+    }
+
+    private void loadWarmUpEntry(String apiId, String partition, String contentHash, double[] embeddings,
+                                 CacheableResponse response) {
+        String target = partition != null ? partition : apiId;
+        if (!target.equals(apiId) && !target.startsWith(apiId + SemanticCacheConstants.PARTITION_SEPARATOR)) {
+            // Entries of other APIs are left to the policies of those APIs
+            return;
+        }
+        putExactMatch(target, contentHash, response, embeddings);
+    }
+
+    /**
+     * Writes the live exact-match entries of the API to its snapshot file, so that they are loaded again
+     * after a restart.
+     */
+    private void exportSnapshot() {
+        String apiId = snapshotApiId.get();
+        Path file = CacheSnapshot.fileFor(apiId);
+        if (!exactMatchCacheEnabled || file == null) {
+            return;
+        }
+        try {
+            List<ExactMatchCache.SnapshotEntry> entries = ExactMatchCache.getInstance().snapshot(apiId);
+            CacheSnapshot.export(file, entries);
+            logger.info("Exported " + entries.size() + " semantic cache entries to " + file);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to export semantic cache snapshot to " + file, e);
+        }
+    }
+
+    /**
+     * Validates the adaptive threshold bounds and starts the shadow lookup worker, if configured.
+     * Invalid values disable the respective feature rather than failing the deployment.
+     */
+    private void initThresholdTuning() {
+        if (adaptiveThreshold) {
+            try {
+                double base = Double.parseDouble(threshold);
+                adaptiveMin = StringUtils.isNotBlank(adaptiveThresholdMin)
+                        ? Double.parseDouble(adaptiveThresholdMin) : base / 2;
+                adaptiveMax = StringUtils.isNotBlank(adaptiveThresholdMax)
+                        ? Double.parseDouble(adaptiveThresholdMax) : base * 1.5;
+            } catch (NumberFormatException e) {
+                logger.error("Invalid adaptive threshold configuration - using the static threshold.", e);
+                adaptiveThreshold = false;
+            }
+        }
+        if (StringUtils.isNotBlank(shadowThreshold) && shadowSampleRate > 0) {
+            try {
+                Double.parseDouble(shadowThreshold);
+            } catch (NumberFormatException e) {
+                logger.error("Invalid shadow threshold: " + shadowThreshold + " - shadow lookups are disabled.");
+                return;
+            }
+            shadowExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(SemanticCacheConstants.SHADOW_LOOKUP_QUEUE_SIZE), runnable -> {
+                        Thread thread = new Thread(runnable, "SemanticCacheShadowLookup");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.DiscardPolicy());
+        }
     }
 
     /**
@@ -141,7 +353,12 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
         boolean result = true;
         try {
             if (messageContext.isResponse()) {
-                processResponseMessage(messageContext);
+                CacheableResponse cachedResponse = null;
+                try {
+                    cachedResponse = processResponseMessage(messageContext);
+                } finally {
+                    releaseFollowers(messageContext, cachedResponse);
+                }
             } else {
                 result = processRequestMessage(messageContext); // Returns false if cache hit is found to stop mediation
             }
@@ -156,9 +373,10 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
     /**
      * Processes incoming request messages for semantic cache lookup.
      * <p>
-     * Extracts content from the request, generates embeddings, and searches for semantically
-     * similar cached responses. If a cache hit is found, serves the cached response immediately.
-     * Otherwise, stores the request embeddings for response caching and continues processing.
+     * Extracts content from the request and first looks it up in the exact-match tier. On a miss,
+     * generates embeddings and searches for semantically similar cached responses. If a cache hit is
+     * found, serves the cached response immediately. Otherwise, stores the request embeddings for
+     * response caching and continues processing.
      *
      * @param messageContext The message context containing the request.
      * @return {@code true} if processing should continue, {@code false} if cached response was served.
@@ -177,30 +395,232 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
             return true;
         }
 
-        double[] embeddings = embeddingProvider.getEmbedding(contentToEmbed);
-        Map<String, String> filter = new HashMap<>();
         String apiId = (String) messageContext.getProperty(SemanticCacheConstants.API_UUID);
         if (apiId == null) {
             return true;
         }
-        filter.put(SemanticCacheConstants.API_ID, apiId);
-        filter.put(SemanticCacheConstants.THRESHOLD, threshold);
+        String partition = resolvePartition(messageContext, msgCtx, apiId);
+        if (snapshotApiId.get() == null && snapshotApiId.compareAndSet(null, apiId)) {
+            startWarmUp(apiId);
+        }
+        APICacheMetrics metrics = metricsFor(apiId);
+
+        boolean streamingRequest = Boolean.TRUE.equals(msgCtx.getProperty(SemanticCacheConstants.REQUEST_STREAMING));
+        // Streamed and non-streamed requests for the same content are cached as separate entries
+        String contentHash = ExactMatchCache.hashContent(
+                streamingRequest ? SemanticCacheConstants.STREAMING_KEY_PREFIX + contentToEmbed : contentToEmbed);
+        if (exactMatchCacheEnabled && serveExactMatch(messageContext, msgCtx, partition, contentHash, metrics)) {
+            return false;
+        }
+
+        RequestCoalescer.Flight flight = null;
+        if (requestCoalescing) {
+            String flightKey = partition + ":" + contentHash;
+            long waitMillis = Math.min(coalescingWaitTimeout, SemanticCacheConstants.MAX_COALESCING_WAIT_TIMEOUT_MS);
+            flight = RequestCoalescer.getInstance().tryLead(flightKey, waitMillis);
+            if (flight == null) {
+                // An identical request is already on its way to the backend - wait briefly for its response
+                CacheableResponse coalesced = RequestCoalescer.getInstance().await(flightKey, waitMillis);
+                if (coalesced != null) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Serving the response of a coalesced identical request.");
+                    }
+                    messageContext.setProperty(SemanticCacheConstants.REQUEST_CACHE_HIT, true);
+                    messageContext.setProperty(SemanticCacheConstants.CACHE_HIT_TYPE,
+                            SemanticCacheConstants.HIT_TYPE_COALESCED);
+                    metrics.recordCoalescedHit(coalesced.getResponsePayload().length);
+                    messageContext.setResponse(true);
+                    replaceEnvelopeWithCachedResponse(messageContext, msgCtx, coalesced);
+                    return false;
+                }
+                // The leader may have completed before this request started to wait
+                if (exactMatchCacheEnabled
+                        && serveExactMatch(messageContext, msgCtx, partition, contentHash, metrics)) {
+                    return false;
+                }
+            }
+        }
+
+        try {
+            return lookupSemanticCache(messageContext, msgCtx, partition, contentToEmbed, contentHash, flight,
+                    metrics);
+        } catch (APIManagementException | RuntimeException e) {
+            if (flight != null) {
+                RequestCoalescer.getInstance().complete(flight, null);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Serves the response cached in the exact-match tier for the given content, if any.
+     *
+     * @param messageContext The Synapse message context.
+     * @param msgCtx         The Axis2 message context.
+     * @param partition      The cache partition of the request.
+     * @param contentHash    The hash of the extracted request content.
+     * @param metrics        The metrics of the API.
+     * @return {@code true} if a cached response was served, {@code false} otherwise.
+     */
+    private boolean serveExactMatch(MessageContext messageContext, org.apache.axis2.context.MessageContext msgCtx,
+                                    String partition, String contentHash, APICacheMetrics metrics) {
+        CacheableResponseCodec.EncodedResponse exactMatch = ExactMatchCache.getInstance().get(partition, contentHash);
+        if (exactMatch == null) {
+            return false;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Exact-match cache hit found for the request - serving cached response.");
+        }
+        messageContext.setProperty(SemanticCacheConstants.REQUEST_CACHE_HIT, true);
+        messageContext.setProperty(SemanticCacheConstants.CACHE_HIT_TYPE, SemanticCacheConstants.HIT_TYPE_EXACT);
+        metrics.recordExactMatchHit(exactMatch.getPayloadLength());
+        messageContext.setResponse(true);
+        replaceEnvelopeWithCachedResponse(messageContext, msgCtx, exactMatch.openPayload(),
+                exactMatch.getStatusCode(), exactMatch.getStatusReason(), exactMatch.getHeaderProperties());
+        return true;
+    }
+
+    /**
+     * Embeds request content. Content longer than one chunk is split into overlapping chunks that are
+     * embedded concurrently, and the mean of their normalized embeddings, scaled back to unit length,
+     * stands for the whole content.
+     *
+     * @param content        The content to embed.
+     * @param messageContext The message context, used to reuse embeddings of other mediators, or null.
+     * @return The embedding of the content.
+     * @throws APIManagementException If embedding generation fails.
+     */
+    private double[] embedContent(String content, MessageContext messageContext) throws APIManagementException {
+        List<String> chunks = TextChunker.split(content, chunkSize, chunkOverlap, chunkingUnit);
+        if (chunks.size() == 1) {
+            return EmbeddingMemo.getInstance().getEmbedding(embeddingProvider, content, messageContext);
+        }
+        double[] pooled = TextChunker.meanPool(TextChunker.embedAll(embeddingProvider, chunks));
+        if (pooled == null) {
+            return null;
+        }
+        double norm = 0.0;
+        for (double v : pooled) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0.0) {
+            for (int i = 0; i < pooled.length; i++) {
+                pooled[i] /= norm;
+            }
+        }
+        return pooled;
+    }
 
+    /**
+     * Generates embeddings for the request content and searches the vector database for a semantically
+     * similar cached response. Serves the response on a hit; otherwise records the state needed to cache
+     * the backend response.
+     *
+     * @param messageContext The Synapse message context.
+     * @param msgCtx         The Axis2 message context.
+     * @param partition      The cache partition of the request.
+     * @param contentToEmbed The extracted request content.
+     * @param contentHash    The hash of the extracted request content.
+     * @param flight         The coalescing flight led by this request, or null.
+     * @param metrics        The metrics of the API.
+     * @return {@code true} if processing should continue, {@code false} if cached response was served.
+     * @throws APIManagementException If embedding generation or cache lookup fails.
+     */
+    private boolean lookupSemanticCache(MessageContext messageContext,
+                                        org.apache.axis2.context.MessageContext msgCtx, String partition,
+                                        String contentToEmbed, String contentHash, RequestCoalescer.Flight flight,
+                                        APICacheMetrics metrics)
+            throws APIManagementException {
+        long embeddingStart = System.nanoTime();
+        double[] embeddings = embedContent(contentToEmbed, messageContext);
+        long embeddingTime = System.nanoTime() - embeddingStart;
+        metrics.recordEmbeddingTime(embeddingTime);
+        messageContext.setProperty(SemanticCacheConstants.EMBEDDING_TIME, TimeUnit.NANOSECONDS.toMillis(embeddingTime));
+        AdaptiveThreshold adaptive = adaptiveThreshold ? getAdaptiveThreshold(partition) : null;
+        String effectiveThreshold = adaptive != null ? String.valueOf(adaptive.getCurrent()) : threshold;
+        Map<String, String> filter = new HashMap<>();
+        filter.put(SemanticCacheConstants.API_ID, partition);
+        filter.put(SemanticCacheConstants.THRESHOLD, effectiveThreshold);
+
+        long retrieveStart = System.nanoTime();
         String retrievedResponse = vectorDBProvider.retrieve(embeddings, filter);
+        long retrieveTime = System.nanoTime() - retrieveStart;
+        metrics.recordRetrieveTime(retrieveTime);
+        messageContext.setProperty(SemanticCacheConstants.RETRIEVE_TIME, TimeUnit.NANOSECONDS.toMillis(retrieveTime));
+        if (adaptive != null) {
+            adaptive.record(retrievedResponse != null);
+        }
+        if (shadowExecutor != null && ThreadLocalRandom.current().nextInt(100) < shadowSampleRate) {
+            submitShadowLookup(partition, embeddings, effectiveThreshold, retrievedResponse != null, metrics);
+        }
         CacheableResponse cachedResponse = null;
+        boolean refreshed = false;
         if (retrievedResponse != null) {
             logger.debug("Cache hit found for the request - serving cached response.");
             messageContext.setProperty(SemanticCacheConstants.REQUEST_CACHE_HIT, true);
             cachedResponse = gson.fromJson(retrievedResponse, CacheableResponse.class);
+            if (cachedResponse != null && cachedResponse.isExpired(System.currentTimeMillis())) {
+                // The expired vector keeps shadowing the fresh one stored after it, so its refresh is kept in memory
+                boolean streamingRequest = Boolean.TRUE.equals(
+                        msgCtx.getProperty(SemanticCacheConstants.REQUEST_STREAMING));
+                String refreshKey = (streamingRequest ? SemanticCacheConstants.STREAMING_KEY_PREFIX : "")
+                        + SemanticCacheConstants.REFRESH_KEY_PREFIX + ExactMatchCache.hashContent(retrievedResponse);
+                CacheableResponseCodec.EncodedResponse refresh =
+                        ExactMatchCache.getInstance().get(partition, refreshKey);
+                if (refresh != null) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Cached response has expired - serving the response that refreshed it.");
+                    }
+                    cachedResponse = refresh.toCacheableResponse();
+                    refreshed = true;
+                } else {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Cached response has expired - ignoring.");
+                    }
+                    messageContext.setProperty(SemanticCacheConstants.REQUEST_CACHE_HIT, false);
+                    messageContext.setProperty(SemanticCacheConstants.REQUEST_REFRESH_KEY, refreshKey);
+                    cachedResponse = null;
+                }
+            }
+            if (cachedResponse != null && EventStreamSupport.isEventStreamResponse(
+                    cachedResponse.getHeaderProperties()) != Boolean.TRUE.equals(
+                    msgCtx.getProperty(SemanticCacheConstants.REQUEST_STREAMING))) {
+                // A streamed response cannot answer a non-streamed request and vice versa
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Cached response does not match the streaming mode of the request - ignoring.");
+                }
+                messageContext.setProperty(SemanticCacheConstants.REQUEST_CACHE_HIT, false);
+                cachedResponse = null;
+            } else if (cachedResponse != null && !PayloadCompression.decompress(cachedResponse)) {
+                messageContext.setProperty(SemanticCacheConstants.REQUEST_CACHE_HIT, false);
+                cachedResponse = null;
+            }
         }
         if (cachedResponse != null && cachedResponse.getResponsePayload() != null) {
+            if (exactMatchCacheEnabled && !refreshed) {
+                // Promote the semantic hit so that exact repeats of this prompt skip the remote calls
+                putExactMatch(partition, contentHash, cachedResponse, embeddings);
+            }
+            if (flight != null) {
+                RequestCoalescer.getInstance().complete(flight, cachedResponse);
+            }
+            messageContext.setProperty(SemanticCacheConstants.CACHE_HIT_TYPE, SemanticCacheConstants.HIT_TYPE_SEMANTIC);
+            metrics.recordSemanticHit(cachedResponse.getResponsePayload().length);
             messageContext.setResponse(true);
             replaceEnvelopeWithCachedResponse(messageContext, msgCtx, cachedResponse);
             return false;
         }
 
-        // Cache miss - store embeddings for response caching
+        // Cache miss - store embeddings and content hash for response caching
+        messageContext.setProperty(SemanticCacheConstants.CACHE_HIT_TYPE, SemanticCacheConstants.HIT_TYPE_MISS);
+        metrics.recordMiss();
         messageContext.setProperty(SemanticCacheConstants.REQUEST_EMBEDDINGS, embeddings);
+        messageContext.setProperty(SemanticCacheConstants.REQUEST_CONTENT_HASH, contentHash);
+        messageContext.setProperty(SemanticCacheConstants.REQUEST_CACHE_PARTITION, partition);
+        if (flight != null) {
+            messageContext.setProperty(SemanticCacheConstants.REQUEST_COALESCING_FLIGHT, flight);
+        }
         return true;
     }
 
@@ -220,6 +640,9 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
 
         if (JsonUtil.hasAJsonPayload(msgCtx)) {
             String jsonContent = JsonUtil.jsonPayloadToString(msgCtx);
+            if (EventStreamSupport.isStreamingRequest(jsonContent)) {
+                msgCtx.setProperty(SemanticCacheConstants.REQUEST_STREAMING, true);
+            }
             if (StringUtils.isBlank(jsonPath)) {
                 return jsonContent;
             }
@@ -238,9 +661,6 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
 
     /**
      * Replaces the current message envelope with a cached response.
-     * <p>
-     * Reconstructs the message envelope using the cached response payload and headers,
-     * sets appropriate HTTP status codes and headers, and sends the response back to the client.
      *
      * @param synCtx The Synapse message context.
      * @param msgCtx The Axis2 message context.
@@ -249,25 +669,47 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
     private void replaceEnvelopeWithCachedResponse(MessageContext synCtx,
                                                    org.apache.axis2.context.MessageContext msgCtx,
                                                    CacheableResponse cachedResponse) {
-        try {
-            byte[] payload = cachedResponse.getResponsePayload();
-            OMElement response = JsonUtil.getNewJsonPayload(msgCtx, payload, 0,
-                    payload.length, false, false);
-            if (msgCtx.getEnvelope().getBody().getFirstElement() != null) {
-                msgCtx.getEnvelope().getBody().getFirstElement().detach();
+        replaceEnvelopeWithCachedResponse(synCtx, msgCtx,
+                new ByteArrayInputStream(cachedResponse.getResponsePayload()), cachedResponse.getStatusCode(),
+                cachedResponse.getStatusReason(), cachedResponse.getHeaderProperties());
+    }
+
+    /**
+     * Replaces the current message envelope with a cached response.
+     * <p>
+     * The cached payload is attached to the message as a JSON stream, which the JSON formatter writes
+     * to the client as is, so the payload is not parsed into an OM tree unless a later mediator reads it.
+     * Exact-match hits stream the payload straight out of the cached entry. Semantic hits have already
+     * been deserialized from the JSON form returned by the vector database. Sets the cached HTTP status
+     * code and headers and sends the response back to the client.
+     *
+     * @param synCtx           The Synapse message context.
+     * @param msgCtx           The Axis2 message context.
+     * @param payload          The cached response payload.
+     * @param statusCode       The cached HTTP status code, or null.
+     * @param statusReason     The cached HTTP reason phrase, or null.
+     * @param headerProperties The cached HTTP headers, or null.
+     */
+    private void replaceEnvelopeWithCachedResponse(MessageContext synCtx,
+                                                   org.apache.axis2.context.MessageContext msgCtx,
+                                                   InputStream payload, String statusCode, String statusReason,
+                                                   Map<String, Object> headerProperties) {
+        if (EventStreamSupport.isEventStreamResponse(headerProperties)) {
+            EventStreamSupport.replay(msgCtx, payload);
+        } else {
+            try {
+                JsonUtil.getNewJsonPayload(msgCtx, payload, true, true);
+            } catch (AxisFault e) {
+                logger.error("Error creating response OM from cache", e);
+                handleException("Error creating response OM from cache - ", synCtx);
             }
-            msgCtx.getEnvelope().getBody().addChild(response);
-        } catch (AxisFault e) {
-            logger.error("Error creating response OM from cache", e);
-            handleException("Error creating response OM from cache - ", synCtx);
         }
 
-        if (cachedResponse.getStatusCode() != null) {
-            msgCtx.setProperty(NhttpConstants.HTTP_SC,
-                    Integer.parseInt(cachedResponse.getStatusCode()));
+        if (statusCode != null) {
+            msgCtx.setProperty(NhttpConstants.HTTP_SC, Integer.parseInt(statusCode));
         }
-        if (cachedResponse.getStatusReason() != null) {
-            msgCtx.setProperty(PassThroughConstants.HTTP_SC_DESC, cachedResponse.getStatusReason());
+        if (statusReason != null) {
+            msgCtx.setProperty(PassThroughConstants.HTTP_SC_DESC, statusReason);
         }
 
         if (msgCtx.isDoingREST()) {
@@ -275,7 +717,6 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
             msgCtx.removeProperty(Constants.Configuration.CONTENT_TYPE);
         }
 
-        Map<String, Object> headerProperties = cachedResponse.getHeaderProperties();
         if (headerProperties != null) {
             Map<String, Object> clonedMap = new HashMap<>(headerProperties);
             clonedMap.put("X-Cache-Status", "HIT");
@@ -294,18 +735,27 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
      * Processes outgoing response messages for caching.
      * <p>
      * Retrieves the request embeddings stored during request processing and caches the response
-     * along with relevant metadata for future semantic cache lookups.
+     * along with relevant metadata for future semantic cache lookups. When asynchronous storing is
+     * enabled, the vector database write is handed to the background writer and the response is
+     * released immediately.
      *
      * @param messageContext The message context containing the response.
+     * @return The response that was cached, or null if the response was not cached.
      * @throws java.text.ParseException If date parsing for cache headers fails.
      */
-    private void processResponseMessage(MessageContext messageContext)
+    private CacheableResponse processResponseMessage(MessageContext messageContext)
             throws java.text.ParseException {
         org.apache.axis2.context.MessageContext msgCtx =
                 ((Axis2MessageContext) messageContext).getAxis2MessageContext();
 
+        String apiId = (String) messageContext.getProperty(SemanticCacheConstants.API_UUID);
+        APICacheMetrics metrics = apiId != null ? metricsFor(apiId) : null;
+
         if (isNoStore(msgCtx)) {
-            return;
+            if (metrics != null) {
+                metrics.recordNoStoreSkip();
+            }
+            return null;
         }
 
         Object embeddingObject = messageContext.getProperty(SemanticCacheConstants.REQUEST_EMBEDDINGS);
@@ -314,12 +764,12 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
             if (logger.isDebugEnabled()) {
                 logger.debug("No request embeddings found in message context - skipping response caching.");
             }
-            return; // No embeddings to cache response against
+            return null; // No embeddings to cache response against
         }
 
         double[] embeddings = (double[]) embeddingObject;
         if (embeddings == null) {
-            return;
+            return null;
         }
 
         CacheableResponse response = new CacheableResponse();
@@ -341,18 +791,31 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
                 response.setStatusReason((String) msgCtx.getProperty(PassThroughConstants.HTTP_SC_DESC));
             } else {
                 cacheResponse = false;
+                if (metrics != null) {
+                    metrics.recordNonOkSkip();
+                }
+            }
+        }
+
+        long expiresAt = resolveExpiry(msgCtx);
+        if (expiresAt < 0) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Response is already stale according to its Cache-Control header - skipping caching.");
             }
+            return null;
         }
 
         if (cacheResponse) {
-            if (JsonUtil.hasAJsonPayload(msgCtx)) {
+            response.setExpiresAt(expiresAt);
+            String messageType = (String) msgCtx.getProperty(Constants.Configuration.MESSAGE_TYPE);
+            boolean eventStream = streamingCache && EventStreamSupport.isEventStream(messageType);
+            if (!eventStream && JsonUtil.hasAJsonPayload(msgCtx)) {
                 byte[] responsePayload = JsonUtil.jsonPayloadToByteArray(msgCtx);
                 response.setResponsePayload(responsePayload);
             }
 
             Map<String, String> headers = (Map<String, String>) msgCtx.getProperty(
                     org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
-            String messageType = (String) msgCtx.getProperty(Constants.Configuration.MESSAGE_TYPE);
             Map<String, Object> headerProperties = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
             if (headers != null) {
@@ -360,18 +823,264 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
             }
             headerProperties.put(Constants.Configuration.MESSAGE_TYPE, messageType);
             response.setHeaderProperties(headerProperties);
-            msgCtx.setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, headerProperties);
+            // The live message gets its own copy so that later header changes cannot race with a queued write
+            Map<String, Object> transportHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            transportHeaders.putAll(headerProperties);
+            msgCtx.setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, transportHeaders);
+
+            String apiPartition = (String) messageContext.getProperty(SemanticCacheConstants.REQUEST_CACHE_PARTITION);
+            String partition = apiPartition != null ? apiPartition : apiId;
+            String contentHash = (String) messageContext.getProperty(SemanticCacheConstants.REQUEST_CONTENT_HASH);
+            String refreshKey = (String) messageContext.getProperty(SemanticCacheConstants.REQUEST_REFRESH_KEY);
+            Map<String, String> filter = new HashMap<>();
+            filter.put(SemanticCacheConstants.API_ID, partition);
+
+            if (eventStream) {
+                // The events are cached once they have been relayed to the client, off the mediation path
+                // Streamed responses are always stored in the background, as they complete on the transport thread
+                AsyncCacheWriter writer = getAsyncCacheWriter();
+                boolean teed = writer != null && EventStreamSupport.tee(msgCtx, streamingCacheMaxSize * 1024L,
+                        events -> {
+                            response.setResponsePayload(events);
+                            String writeKey = contentHash != null ? partition + ":" + contentHash : null;
+                            writer.submit(writeKey, embeddings, toStoredForm(response), filter, metrics);
+                            if (exactMatchCacheEnabled && contentHash != null) {
+                                putExactMatch(partition, contentHash, response, embeddings);
+                            }
+                            if (refreshKey != null) {
+                                putRefresh(partition, refreshKey, response);
+                            }
+                        });
+                if (!teed && logger.isDebugEnabled()) {
+                    logger.debug("Event stream response body is not available as a stream - skipping caching.");
+                }
+                return null;
+            }
+
+            AsyncCacheWriter writer = asyncStore ? getAsyncCacheWriter() : null;
+            if (writer != null) {
+                String writeKey = contentHash != null ? partition + ":" + contentHash : null;
+                writer.submit(writeKey, embeddings, toStoredForm(response), filter, metrics);
+            } else {
+                CacheableResponse stored = toStoredForm(response);
+                long storeStart = System.nanoTime();
+                storeResponse(embeddings, stored, filter);
+                long storeTime = System.nanoTime() - storeStart;
+                messageContext.setProperty(SemanticCacheConstants.STORE_TIME, TimeUnit.NANOSECONDS.toMillis(storeTime));
+                if (metrics != null && stored.getResponsePayload() != null) {
+                    metrics.recordStore(storeTime, stored.getResponsePayload().length);
+                }
+            }
+
+            if (exactMatchCacheEnabled && partition != null && contentHash != null) {
+                putExactMatch(partition, contentHash, response, embeddings);
+            }
+            if (partition != null && refreshKey != null) {
+                putRefresh(partition, refreshKey, response);
+            }
+            return response;
+        }
+        return null;
+    }
+
+    /**
+     * Completes the coalescing flight led by the request of this response, if any, so that waiting
+     * identical requests are served the cached response or proceed to the backend.
+     *
+     * @param messageContext The message context containing the response.
+     * @param cachedResponse The response that was cached, or null if it was not cached.
+     */
+    private void releaseFollowers(MessageContext messageContext, CacheableResponse cachedResponse) {
+        Object flight = messageContext.getProperty(SemanticCacheConstants.REQUEST_COALESCING_FLIGHT);
+        if (flight instanceof RequestCoalescer.Flight) {
+            RequestCoalescer.getInstance().complete((RequestCoalescer.Flight) flight,
+                    cachedResponse != null && cachedResponse.getResponsePayload() != null ? cachedResponse : null);
+        }
+    }
+
+    /**
+     * Stores the response in the vector database on the calling thread.
+     *
+     * @param embeddings the request embeddings to store the response against
+     * @param response   the response to store
+     * @param filter     the vector database filter
+     */
+    private void storeResponse(double[] embeddings, CacheableResponse response, Map<String, String> filter) {
+        try {
+            vectorDBProvider.store(embeddings, response, filter);
+        } catch (APIManagementException e) {
+            logger.error("Error storing response in vector database.", e);
+            throw new RuntimeException("Failed to store response in cache", e);
+        }
+    }
+
+    /**
+     * Returns the form in which a response is written to the vector database. The exact-match tier keeps
+     * the uncompressed response, so that its hits need no decompression.
+     */
+    private CacheableResponse toStoredForm(CacheableResponse response) {
+        return compressPayload ? PayloadCompression.compress(response, compressionThreshold) : response;
+    }
+
+    /**
+     * Adds a response to the exact-match tier under the quotas of its partition.
+     */
+    private void putExactMatch(String partition, String contentHash, CacheableResponse response,
+                               double[] embeddings) {
+        long ttlMillis = exactMatchCacheTTL * 1000L;
+        if (response.getExpiresAt() > 0) {
+            // Never keep an entry in memory beyond the expiry of the response itself
+            long remaining = response.getExpiresAt() - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            ttlMillis = ttlMillis > 0 ? Math.min(ttlMillis, remaining) : remaining;
+        }
+        ExactMatchCache.getInstance().put(partition, contentHash, response, exactMatchCacheSize * 1024L * 1024L,
+                exactMatchCacheMaxEntries, ttlMillis,
+                ExactMatchCache.EvictionPolicy.fromString(exactMatchEvictionPolicy),
+                CacheSnapshot.isEnabled() ? embeddings : null);
+    }
+
+    /**
+     * Keeps a response that replaces an expired vector entry in memory, under a key derived from the expired
+     * entry, for as long as the response itself is fresh. Lookups that still retrieve the expired entry are
+     * served this response instead of calling the backend again.
+     */
+    private void putRefresh(String partition, String refreshKey, CacheableResponse response) {
+        long ttlMillis = 0;
+        if (response.getExpiresAt() > 0) {
+            ttlMillis = response.getExpiresAt() - System.currentTimeMillis();
+            if (ttlMillis <= 0) {
+                return;
+            }
+        }
+        ExactMatchCache.getInstance().put(partition, refreshKey, response, exactMatchCacheSize * 1024L * 1024L,
+                exactMatchCacheMaxEntries, ttlMillis,
+                ExactMatchCache.EvictionPolicy.fromString(exactMatchEvictionPolicy), null);
+    }
 
+    /**
+     * Resolves the expiry time of a response.
+     * <p>
+     * The {@code s-maxage} directive of the Cache-Control header takes precedence over {@code max-age}, as
+     * the semantic cache is a shared cache. Without either directive, the policy default TTL applies.
+     *
+     * @param msgCtx The Axis2 message context containing response headers.
+     * @return The expiry time in milliseconds since the epoch, 0 if the response does not expire, or -1 if
+     * the response is already stale and must not be cached.
+     */
+    private long resolveExpiry(org.apache.axis2.context.MessageContext msgCtx) {
+        Map<String, String> headers = (Map<String, String>) msgCtx.getProperty(
+                org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        String cacheControlHeaderValue = headers != null ? headers.get(HttpHeaders.CACHE_CONTROL) : null;
+
+        long maxAge = -1;
+        if (StringUtils.isNotEmpty(cacheControlHeaderValue)) {
+            long sharedMaxAge = getCacheControlSeconds(cacheControlHeaderValue, SemanticCacheConstants.S_MAXAGE);
+            maxAge = sharedMaxAge >= 0 ? sharedMaxAge
+                    : getCacheControlSeconds(cacheControlHeaderValue, SemanticCacheConstants.MAX_AGE);
+        }
+        if (maxAge == 0) {
+            return -1;
+        }
+        if (maxAge > 0) {
+            return System.currentTimeMillis() + maxAge * 1000L;
+        }
+        return cacheTTL > 0 ? System.currentTimeMillis() + cacheTTL * 1000L : 0;
+    }
+
+    /**
+     * Reads the seconds value of a Cache-Control directive.
+     *
+     * @param cacheControl The Cache-Control header value.
+     * @param directive    The directive name.
+     * @return The directive value in seconds, or -1 if the directive is absent or malformed.
+     */
+    private static long getCacheControlSeconds(String cacheControl, String directive) {
+        for (String part : cacheControl.split(",")) {
+            String[] nameValue = part.trim().split("=", 2);
+            if (nameValue.length == 2 && directive.equalsIgnoreCase(nameValue[0].trim())) {
+                try {
+                    return Math.max(0, Long.parseLong(nameValue[1].trim().replace("\"", "")));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the adaptive threshold of a partition, creating it at the configured threshold on first use.
+     */
+    private AdaptiveThreshold getAdaptiveThreshold(String partition) {
+        AdaptiveThreshold adaptive = adaptiveThresholds.get(partition);
+        if (adaptive != null) {
+            return adaptive;
+        }
+        return adaptiveThresholds.computeIfAbsent(partition, key -> new AdaptiveThreshold(key,
+                Double.parseDouble(threshold), adaptiveMin, adaptiveMax, targetHitRate / 100.0, adaptiveWindowSize));
+    }
+
+    /**
+     * Repeats a lookup with the shadow threshold off the request path and logs when its outcome differs
+     * from the outcome of the served lookup.
+     *
+     * @param partition       The cache partition of the request.
+     * @param embeddings      The request embeddings.
+     * @param servedThreshold The threshold of the served lookup.
+     * @param servedHit       Whether the served lookup was a hit.
+     * @param metrics         The metrics of the API.
+     */
+    private void submitShadowLookup(String partition, double[] embeddings, String servedThreshold, boolean servedHit,
+                                    APICacheMetrics metrics) {
+        Map<String, String> shadowFilter = new HashMap<>();
+        shadowFilter.put(SemanticCacheConstants.API_ID, partition);
+        shadowFilter.put(SemanticCacheConstants.THRESHOLD, shadowThreshold);
+        shadowExecutor.execute(() -> {
             try {
-                Map<String, String> filter = new HashMap<>();
-                filter.put(SemanticCacheConstants.API_ID,
-                        (String) messageContext.getProperty(SemanticCacheConstants.API_UUID));
-                vectorDBProvider.store(embeddings, response, filter);
-            } catch (APIManagementException e) {
-                logger.error("Error storing response in vector database.", e);
-                throw new RuntimeException("Failed to store response in cache", e);
+                boolean shadowHit = vectorDBProvider.retrieve(embeddings, shadowFilter) != null;
+                metrics.recordShadowLookup(servedHit, shadowHit);
+                if (shadowHit != servedHit) {
+                    logger.info("Semantic cache shadow lookup for " + partition + ": threshold " + shadowThreshold
+                            + " would have " + (shadowHit ? "served a cached response" : "missed")
+                            + " where threshold " + servedThreshold + (servedHit ? " served a cached response."
+                            : " missed."));
+                }
+            } catch (APIManagementException | RuntimeException e) {
+                logger.warn("Semantic cache shadow lookup failed.", e);
             }
+        });
+    }
+
+    /**
+     * Resolves the cache partition of a request.
+     * <p>
+     * Without partition keys, every API is a partition of its own. Otherwise the values of the configured
+     * message context properties are appended to the API identifier, so that lookups and quotas are scoped
+     * to, for example, a tenant, resource or model. The partition is used in place of the API identifier in
+     * the vector database filter.
+     *
+     * @param messageContext The Synapse message context.
+     * @param msgCtx         The Axis2 message context.
+     * @param apiId          The API identifier.
+     * @return The partition key.
+     */
+    private String resolvePartition(MessageContext messageContext, org.apache.axis2.context.MessageContext msgCtx,
+                                    String apiId) {
+        if (partitionKeyList.isEmpty()) {
+            return apiId;
         }
+        StringBuilder partition = new StringBuilder(apiId);
+        for (String key : partitionKeyList) {
+            Object value = messageContext.getProperty(key);
+            if (value == null) {
+                value = msgCtx.getProperty(key);
+            }
+            partition.append(SemanticCacheConstants.PARTITION_SEPARATOR).append(value != null ? value : "");
+        }
+        return partition.toString();
     }
 
     /**
@@ -411,4 +1120,280 @@ public class SemanticCache extends AbstractMediator implements ManagedLifecycle
     public void setJsonPath(String jsonPath) {
         this.jsonPath = jsonPath;
     }
+
+    public boolean isExactMatchCacheEnabled() {
+        return exactMatchCacheEnabled;
+    }
+
+    public void setExactMatchCacheEnabled(boolean exactMatchCacheEnabled) {
+        this.exactMatchCacheEnabled = exactMatchCacheEnabled;
+    }
+
+    public int getExactMatchCacheSize() {
+        return exactMatchCacheSize;
+    }
+
+    public void setExactMatchCacheSize(int exactMatchCacheSize) {
+        this.exactMatchCacheSize = exactMatchCacheSize;
+    }
+
+    public int getExactMatchCacheTTL() {
+        return exactMatchCacheTTL;
+    }
+
+    public void setExactMatchCacheTTL(int exactMatchCacheTTL) {
+        this.exactMatchCacheTTL = exactMatchCacheTTL;
+    }
+
+    public boolean isAsyncStore() {
+        return asyncStore;
+    }
+
+    public void setAsyncStore(boolean asyncStore) {
+        this.asyncStore = asyncStore;
+    }
+
+    public int getAsyncStoreQueueSize() {
+        return asyncStoreQueueSize;
+    }
+
+    public void setAsyncStoreQueueSize(int asyncStoreQueueSize) {
+        this.asyncStoreQueueSize = asyncStoreQueueSize;
+    }
+
+    public int getAsyncStoreBatchSize() {
+        return asyncStoreBatchSize;
+    }
+
+    public void setAsyncStoreBatchSize(int asyncStoreBatchSize) {
+        this.asyncStoreBatchSize = asyncStoreBatchSize;
+    }
+
+    public int getAsyncStoreFlushInterval() {
+        return asyncStoreFlushInterval;
+    }
+
+    public void setAsyncStoreFlushInterval(int asyncStoreFlushInterval) {
+        this.asyncStoreFlushInterval = asyncStoreFlushInterval;
+    }
+
+    public boolean isRequestCoalescing() {
+        return requestCoalescing;
+    }
+
+    public void setRequestCoalescing(boolean requestCoalescing) {
+        this.requestCoalescing = requestCoalescing;
+    }
+
+    public int getCoalescingWaitTimeout() {
+        return coalescingWaitTimeout;
+    }
+
+    public void setCoalescingWaitTimeout(int coalescingWaitTimeout) {
+        this.coalescingWaitTimeout = coalescingWaitTimeout;
+    }
+
+    public boolean isStreamingCache() {
+        return streamingCache;
+    }
+
+    public void setStreamingCache(boolean streamingCache) {
+        this.streamingCache = streamingCache;
+    }
+
+    public int getStreamingCacheMaxSize() {
+        return streamingCacheMaxSize;
+    }
+
+    public void setStreamingCacheMaxSize(int streamingCacheMaxSize) {
+        this.streamingCacheMaxSize = streamingCacheMaxSize;
+    }
+
+    /**
+     * Replay pacing has been removed, as it held a worker thread for the whole replay. The property is
+     * still accepted, and ignored, so that policies deployed with it keep deploying.
+     *
+     * @param streamingReplayInterval ignored
+     */
+    @Deprecated
+    public void setStreamingReplayInterval(int streamingReplayInterval) {
+        if (streamingReplayInterval > 0) {
+            logger.warn("streamingReplayInterval is no longer supported - cached event streams are replayed "
+                    + "without pacing.");
+        }
+    }
+
+    public String getPartitionKeys() {
+        return partitionKeys;
+    }
+
+    public void setPartitionKeys(String partitionKeys) {
+        this.partitionKeys = partitionKeys;
+        List<String> keys = new ArrayList<>();
+        if (StringUtils.isNotBlank(partitionKeys)) {
+            for (String key : partitionKeys.split(",")) {
+                if (StringUtils.isNotBlank(key)) {
+                    keys.add(key.trim());
+                }
+            }
+        }
+        this.partitionKeyList = keys;
+    }
+
+    public int getExactMatchCacheMaxEntries() {
+        return exactMatchCacheMaxEntries;
+    }
+
+    public void setExactMatchCacheMaxEntries(int exactMatchCacheMaxEntries) {
+        this.exactMatchCacheMaxEntries = exactMatchCacheMaxEntries;
+    }
+
+    public String getExactMatchEvictionPolicy() {
+        return exactMatchEvictionPolicy;
+    }
+
+    public void setExactMatchEvictionPolicy(String exactMatchEvictionPolicy) {
+        this.exactMatchEvictionPolicy = exactMatchEvictionPolicy;
+    }
+
+    public int getCacheTTL() {
+        return cacheTTL;
+    }
+
+    public void setCacheTTL(int cacheTTL) {
+        this.cacheTTL = cacheTTL;
+    }
+
+    public boolean isCompressPayload() {
+        return compressPayload;
+    }
+
+    public void setCompressPayload(boolean compressPayload) {
+        this.compressPayload = compressPayload;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public boolean isAdaptiveThreshold() {
+        return adaptiveThreshold;
+    }
+
+    public void setAdaptiveThreshold(boolean adaptiveThreshold) {
+        this.adaptiveThreshold = adaptiveThreshold;
+    }
+
+    public String getAdaptiveThresholdMin() {
+        return adaptiveThresholdMin;
+    }
+
+    public void setAdaptiveThresholdMin(String adaptiveThresholdMin) {
+        this.adaptiveThresholdMin = adaptiveThresholdMin;
+    }
+
+    public String getAdaptiveThresholdMax() {
+        return adaptiveThresholdMax;
+    }
+
+    public void setAdaptiveThresholdMax(String adaptiveThresholdMax) {
+        this.adaptiveThresholdMax = adaptiveThresholdMax;
+    }
+
+    public int getTargetHitRate() {
+        return targetHitRate;
+    }
+
+    public void setTargetHitRate(int targetHitRate) {
+        this.targetHitRate = targetHitRate;
+    }
+
+    public int getAdaptiveWindowSize() {
+        return adaptiveWindowSize;
+    }
+
+    public void setAdaptiveWindowSize(int adaptiveWindowSize) {
+        this.adaptiveWindowSize = adaptiveWindowSize;
+    }
+
+    public String getShadowThreshold() {
+        return shadowThreshold;
+    }
+
+    public void setShadowThreshold(String shadowThreshold) {
+        this.shadowThreshold = shadowThreshold;
+    }
+
+    public int getShadowSampleRate() {
+        return shadowSampleRate;
+    }
+
+    public void setShadowSampleRate(int shadowSampleRate) {
+        this.shadowSampleRate = shadowSampleRate;
+    }
+
+    /**
+     * Warm-up files can no longer be set by the policy, as that let API publishers read any file on the
+     * gateway. The property is still accepted, and ignored, so that policies deployed with it keep deploying.
+     *
+     * @param warmupFile ignored
+     */
+    @Deprecated
+    public void setWarmupFile(String warmupFile) {
+        if (StringUtils.isNotBlank(warmupFile)) {
+            logger.warn("warmupFile is no longer supported - set the " + SemanticCacheConstants.SNAPSHOT_DIR_PROPERTY
+                    + " system property instead.");
+        }
+    }
+
+    /**
+     * Snapshot files can no longer be set by the policy, as that let API publishers overwrite any file on
+     * the gateway. The property is still accepted, and ignored, so that policies deployed with it keep
+     * deploying.
+     *
+     * @param snapshotFile ignored
+     */
+    @Deprecated
+    public void setSnapshotFile(String snapshotFile) {
+        if (StringUtils.isNotBlank(snapshotFile)) {
+            logger.warn("snapshotFile is no longer supported - set the "
+                    + SemanticCacheConstants.SNAPSHOT_DIR_PROPERTY + " system property instead.");
+        }
+    }
+
+    public int getWarmupParallelism() {
+        return warmupParallelism;
+    }
+
+    public void setWarmupParallelism(int warmupParallelism) {
+        this.warmupParallelism = warmupParallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkOverlap() {
+        return chunkOverlap;
+    }
+
+    public void setChunkOverlap(int chunkOverlap) {
+        this.chunkOverlap = chunkOverlap;
+    }
+
+    public String getChunkUnit() {
+        return chunkUnit;
+    }
+
+    public void setChunkUnit(String chunkUnit) {
+        this.chunkUnit = chunkUnit;
+    }
 }
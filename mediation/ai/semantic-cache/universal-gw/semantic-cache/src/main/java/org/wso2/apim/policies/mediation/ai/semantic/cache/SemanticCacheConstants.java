@@ -33,9 +33,94 @@ public class SemanticCacheConstants {
     public static final String DEFAULT_THRESHOLD = "80";
     public static final String REQUEST_EMBEDDINGS = "requestEmbeddings";
     public static final String EMBEDDING_DIMENSION = "embedding_dimension";
+    public static final String REQUEST_CONTENT_HASH = "requestContentHash";
+
+    // Exact-match (L1) Cache Configuration
+    public static final boolean DEFAULT_EXACT_MATCH_CACHE_ENABLED = false;
+    public static final int DEFAULT_EXACT_MATCH_CACHE_SIZE_MB = 16;
+    public static final int DEFAULT_EXACT_MATCH_CACHE_TTL_SECONDS = 300;
+    public static final int DEFAULT_EXACT_MATCH_MAX_PARTITIONS = 100;
+    public static final int DEFAULT_EXACT_MATCH_CACHE_MAX_ENTRIES = 10000;
+    public static final String DEFAULT_EXACT_MATCH_EVICTION_POLICY = "LRU";
+    public static final String EXACT_MATCH_CACHE_MAX_BYTES_PROPERTY = "apim.ai.semantic.cache.exact.match.max.bytes";
+    public static final long DEFAULT_EXACT_MATCH_CACHE_MAX_BYTES = 128L * 1024 * 1024;
+    public static final long ACCESS_TIME_GRANULARITY_MILLIS = 1000;
+
+    // Expiry Configuration
+    public static final int DEFAULT_CACHE_TTL_SECONDS = 0;
+    public static final long EXPIRY_SWEEP_INTERVAL_SECONDS = 60;
+    public static final String MAX_AGE = "max-age";
+    public static final String S_MAXAGE = "s-maxage";
+    public static final String REQUEST_REFRESH_KEY = "semanticCacheRefreshKey";
+    public static final String REFRESH_KEY_PREFIX = "refresh:";
+
+    // Payload Compression Configuration
+    public static final String PAYLOAD_ENCODING_DEFLATE = "deflate";
+    public static final boolean DEFAULT_COMPRESS_PAYLOAD = false;
+    public static final int DEFAULT_COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    // Threshold Tuning Configuration
+    public static final boolean DEFAULT_ADAPTIVE_THRESHOLD = false;
+    public static final int DEFAULT_TARGET_HIT_RATE = 30;
+    public static final int DEFAULT_ADAPTIVE_WINDOW_SIZE = 500;
+    public static final int DEFAULT_SHADOW_SAMPLE_RATE = 10;
+    public static final int SHADOW_LOOKUP_QUEUE_SIZE = 100;
+
+    // Warm-up and Snapshot Configuration
+    public static final String SNAPSHOT_DIR_PROPERTY = "apim.ai.semantic.cache.snapshot.dir";
+    public static final String CARBON_HOME_PROPERTY = "carbon.home";
+    public static final String SNAPSHOT_FILE_EXTENSION = ".jsonl";
+    public static final int DEFAULT_WARMUP_PARALLELISM = 4;
+    public static final int WARMUP_BATCH_SIZE = 64;
+
+    // Metrics
+    public static final String METRICS_MBEAN_DOMAIN = "org.wso2.apim.policies";
+    public static final String CACHE_HIT_TYPE = "semanticCache.hitType";
+    public static final String EMBEDDING_TIME = "semanticCache.embeddingTimeMillis";
+    public static final String RETRIEVE_TIME = "semanticCache.retrieveTimeMillis";
+    public static final String STORE_TIME = "semanticCache.storeTimeMillis";
+    public static final String HIT_TYPE_EXACT = "EXACT";
+    public static final String HIT_TYPE_SEMANTIC = "SEMANTIC";
+    public static final String HIT_TYPE_COALESCED = "COALESCED";
+    public static final String HIT_TYPE_MISS = "MISS";
+
+    // Partitioning Configuration
+    public static final String REQUEST_CACHE_PARTITION = "semanticCachePartition";
+    public static final String PARTITION_SEPARATOR = "|";
+
+    // Asynchronous Store Configuration
+    public static final boolean DEFAULT_ASYNC_STORE = false;
+    public static final int DEFAULT_ASYNC_STORE_QUEUE_SIZE = 1000;
+    public static final int DEFAULT_ASYNC_STORE_BATCH_SIZE = 50;
+    public static final int DEFAULT_ASYNC_STORE_FLUSH_INTERVAL_MS = 100;
+    public static final long ASYNC_STORE_SHUTDOWN_TIMEOUT_MS = 5000;
+
+    // Request Coalescing Configuration
+    public static final String REQUEST_COALESCING_FLIGHT = "requestCoalescingFlight";
+    public static final boolean DEFAULT_REQUEST_COALESCING = false;
+    public static final int DEFAULT_COALESCING_WAIT_TIMEOUT_MS = 300;
+    public static final long MAX_COALESCING_WAIT_TIMEOUT_MS = 1000;
+    public static final String COALESCING_MAX_WAITERS_PROPERTY = "apim.ai.semantic.cache.coalescing.max.waiters";
+    public static final int DEFAULT_COALESCING_MAX_WAITERS = 32;
+
+    // Streaming (SSE) Response Configuration
+    public static final String REQUEST_STREAMING = "semanticCacheStreamingRequest";
+    public static final String STREAMING_KEY_PREFIX = "stream:";
+    public static final String EVENT_STREAM_CONTENT_TYPE = "text/event-stream";
+    public static final boolean DEFAULT_STREAMING_CACHE = false;
+    public static final int DEFAULT_STREAMING_CACHE_MAX_SIZE_KB = 1024;
+
+    // Long Content Chunking Configuration
+    public static final int DEFAULT_CHUNK_SIZE = 0;
+    public static final int DEFAULT_CHUNK_OVERLAP = 0;
+    public static final String DEFAULT_CHUNK_UNIT = "CHARACTERS";
+    public static final int MAX_CHUNKS = 64;
+    public static final int CHUNK_EMBEDDING_THREADS = 8;
+    public static final int CHUNK_EMBEDDING_QUEUE_SIZE = 1024;
     
     // HTTP Headers and Status
     public static final String CONTENT_TYPE = "Content-Type";
+    public static final String JSON_CONTENT_TYPE = "application/json";
     public static final String NO_STORE_STRING = "no-store";
 
     // API Configuration
@@ -46,4 +131,11 @@ public class SemanticCacheConstants {
     // Text Processing
     public static final String TEXT_CLEAN_REGEX = "^\"|\"$";
     public static final String REQUEST_CACHE_HIT = "api.analytics.cacheHit";
+
+    // Embedding memo shared by the semantic mediators
+    public static final String EMBEDDING_MEMO_SLOT = "ai.semantic.embeddingMemo";
+    public static final String EMBEDDING_MEMO_CAPACITY_PROPERTY = "apim.ai.embedding.memo.capacity";
+    public static final String EMBEDDING_MEMO_TTL_PROPERTY = "apim.ai.embedding.memo.ttl";
+    public static final int DEFAULT_EMBEDDING_MEMO_CAPACITY = 1000;
+    public static final long DEFAULT_EMBEDDING_MEMO_TTL_SECONDS = 600;
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of per-API semantic cache metrics.
+ * <p>
+ * The metrics of each API are registered as an MBean named
+ * {@code org.wso2.apim.policies:type=SemanticCache,api=<API ID>} on first use, and unregistered once
+ * no mediator of the API holds them any more.
+ */
+public class SemanticCacheMetrics {
+
+    private static final Log logger = LogFactory.getLog(SemanticCacheMetrics.class);
+
+    private static volatile SemanticCacheMetrics instance;
+    private static final Object LOCK = new Object();
+
+    private final ConcurrentHashMap<String, APICacheMetrics> metricsByApi = new ConcurrentHashMap<>();
+    private final Map<String, Integer> references = new HashMap<>();
+
+    private SemanticCacheMetrics() {
+    }
+
+    /**
+     * Returns the global singleton instance of the metrics registry.
+     *
+     * @return the singleton instance
+     */
+    public static SemanticCacheMetrics getInstance() {
+        if (instance == null) {
+            synchronized (LOCK) {
+                if (instance == null) {
+                    instance = new SemanticCacheMetrics();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the metrics of the given API and takes a reference on them, creating and registering them
+     * on first use. Every call must be paired with a call to {@link #release(String)}.
+     *
+     * @param apiId the API identifier
+     * @return the metrics of the API
+     */
+    public APICacheMetrics acquire(String apiId) {
+        synchronized (LOCK) {
+            APICacheMetrics metrics = metricsByApi.computeIfAbsent(apiId, id -> {
+                APICacheMetrics created = new APICacheMetrics();
+                register(id, created);
+                return created;
+            });
+            references.merge(apiId, 1, Integer::sum);
+            return metrics;
+        }
+    }
+
+    /**
+     * Drops a reference on the metrics of the given API. The metrics are unregistered once the last
+     * reference has been dropped, for example when the API is undeployed.
+     *
+     * @param apiId the API identifier
+     */
+    public void release(String apiId) {
+        synchronized (LOCK) {
+            Integer remaining = references.computeIfPresent(apiId, (id, count) -> count > 1 ? count - 1 : null);
+            if (remaining == null && metricsByApi.remove(apiId) != null) {
+                unregister(apiId);
+            }
+        }
+    }
+
+    private static ObjectName objectName(String apiId) throws JMException {
+        return new ObjectName(SemanticCacheConstants.METRICS_MBEAN_DOMAIN
+                + ":type=SemanticCache,api=" + ObjectName.quote(apiId));
+    }
+
+    private static void register(String apiId, APICacheMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = objectName(apiId);
+            if (server.isRegistered(name)) {
+                // Left behind by an earlier deployment of the policy
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException | RuntimeException e) {
+            logger.warn("Unable to register semantic cache metrics MBean for API: " + apiId, e);
+        }
+    }
+
+    private static void unregister(String apiId) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = objectName(apiId);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException | RuntimeException e) {
+            logger.warn("Unable to unregister semantic cache metrics MBean for API: " + apiId, e);
+        }
+    }
+}
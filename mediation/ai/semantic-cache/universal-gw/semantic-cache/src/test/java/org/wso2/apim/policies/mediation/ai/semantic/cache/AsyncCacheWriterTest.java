@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.VectorDBProviderService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the batching, coalescing and dropping behaviour of {@link AsyncCacheWriter} against an in-memory
+ * vector database.
+ */
+public class AsyncCacheWriterTest {
+
+    private static final long AWAIT_SECONDS = 5;
+    private static final Map<String, String> FILTER = Collections.singletonMap(SemanticCacheConstants.API_ID, "api");
+
+    private AsyncCacheWriter writer;
+
+    /**
+     * In-memory vector database that records every store call. Stores can be held back until released, so
+     * that tests can fill the writer queue while the worker is busy.
+     */
+    private static class InMemoryVectorDB implements VectorDBProviderService {
+
+        private final List<Object> stored = new CopyOnWriteArrayList<>();
+        private final CountDownLatch storeEntered = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile CountDownLatch storesDone = new CountDownLatch(0);
+
+        InMemoryVectorDB(boolean blocking) {
+            this.release = new CountDownLatch(blocking ? 1 : 0);
+        }
+
+        void expectStores(int count) {
+            storesDone = new CountDownLatch(count);
+        }
+
+        @Override
+        public String getType() {
+            return "in-memory";
+        }
+
+        @Override
+        public void createIndex(Map<String, String> indexConfig) {
+        }
+
+        @Override
+        public <T> void store(double[] embeddings, T response, Map<String, String> filter)
+                throws APIManagementException {
+            storeEntered.countDown();
+            try {
+                release.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new APIManagementException("Interrupted while storing.");
+            }
+            stored.add(response);
+            storesDone.countDown();
+        }
+
+        @Override
+        public <T> T retrieve(double[] embeddings, Map<String, String> filter) {
+            return null;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.shutdown(1000);
+        }
+    }
+
+    @Test
+    public void testFlushOnInterval() throws InterruptedException {
+        InMemoryVectorDB vectorDB = new InMemoryVectorDB(false);
+        vectorDB.expectStores(1);
+        writer = new AsyncCacheWriter(vectorDB, 10, 100, 50);
+
+        Assert.assertTrue(writer.submit("api:a", new double[]{1}, response("a"), FILTER, null));
+
+        Assert.assertTrue("Write was not flushed after the flush interval",
+                vectorDB.storesDone.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(1, vectorDB.stored.size());
+    }
+
+    @Test
+    public void testFlushOnBatchSizeCoalescesSameKey() throws InterruptedException {
+        InMemoryVectorDB vectorDB = new InMemoryVectorDB(true);
+        APICacheMetrics metrics = new APICacheMetrics();
+        // A long flush interval, so the second batch is only written early because it is full
+        writer = new AsyncCacheWriter(vectorDB, 10, 4, TimeUnit.MINUTES.toMillis(1));
+
+        // A first full batch occupies the worker while the second batch queues up behind it
+        for (int i = 0; i < 4; i++) {
+            writer.submit(null, new double[]{0}, response("first" + i), FILTER, metrics);
+        }
+        Assert.assertTrue("First batch was not flushed", vectorDB.storeEntered.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+        writer.submit("api:a", new double[]{1}, response("a1"), FILTER, metrics);
+        writer.submit("api:a", new double[]{1}, response("a2"), FILTER, metrics);
+        writer.submit("api:a", new double[]{1}, response("a3"), FILTER, metrics);
+        writer.submit("api:b", new double[]{2}, response("b"), FILTER, metrics);
+
+        // The first batch and the two writes left after coalescing the second
+        vectorDB.expectStores(6);
+        vectorDB.release.countDown();
+
+        Assert.assertTrue("Full batch was not flushed", vectorDB.storesDone.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(6, vectorDB.stored.size());
+        Assert.assertEquals("a3", payload(vectorDB.stored.get(4)));
+        Assert.assertEquals("b", payload(vectorDB.stored.get(5)));
+        // Metrics are recorded after each store returns, so wait for the worker to finish
+        writer.shutdown(TimeUnit.SECONDS.toMillis(AWAIT_SECONDS));
+        Assert.assertEquals(2, metrics.getCoalescedStores());
+        Assert.assertEquals(6, metrics.getStores());
+    }
+
+    @Test
+    public void testDropWhenQueueIsFull() throws InterruptedException {
+        InMemoryVectorDB vectorDB = new InMemoryVectorDB(true);
+        APICacheMetrics metrics = new APICacheMetrics();
+        writer = new AsyncCacheWriter(vectorDB, 2, 1, 0);
+
+        writer.submit("api:a", new double[]{1}, response("a"), FILTER, metrics);
+        Assert.assertTrue(vectorDB.storeEntered.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertTrue(writer.submit("api:b", new double[]{2}, response("b"), FILTER, metrics));
+        Assert.assertTrue(writer.submit("api:c", new double[]{3}, response("c"), FILTER, metrics));
+        Assert.assertFalse(writer.submit("api:d", new double[]{4}, response("d"), FILTER, metrics));
+        Assert.assertEquals(1, metrics.getDroppedStores());
+
+        vectorDB.expectStores(3);
+        vectorDB.release.countDown();
+        Assert.assertTrue(vectorDB.storesDone.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(3, vectorDB.stored.size());
+    }
+
+    @Test
+    public void testShutdownDrainsQueueAndRejectsWrites() {
+        InMemoryVectorDB vectorDB = new InMemoryVectorDB(false);
+        APICacheMetrics metrics = new APICacheMetrics();
+        writer = new AsyncCacheWriter(vectorDB, 10, 100, TimeUnit.MINUTES.toMillis(1));
+
+        writer.submit("api:a", new double[]{1}, response("a"), FILTER, metrics);
+        writer.submit("api:b", new double[]{2}, response("b"), FILTER, metrics);
+        writer.shutdown(TimeUnit.SECONDS.toMillis(AWAIT_SECONDS));
+
+        Assert.assertEquals(2, vectorDB.stored.size());
+        Assert.assertFalse(writer.submit("api:c", new double[]{3}, response("c"), FILTER, metrics));
+        Assert.assertEquals(1, metrics.getDroppedStores());
+    }
+
+    private static CacheableResponse response(String payload) {
+        CacheableResponse response = new CacheableResponse();
+        response.setResponsePayload(payload.getBytes(StandardCharsets.UTF_8));
+        return response;
+    }
+
+    private static String payload(Object response) {
+        return new String(((CacheableResponse) response).getResponsePayload(), StandardCharsets.UTF_8);
+    }
+}
@@ -217,7 +217,8 @@ public class SemanticRouting extends AbstractMediator implements ManagedLifecycl
                 return routeToDefault(messageContext, environmentConfig);
             }
 
-            double[] requestEmbedding = embeddingProvider.getEmbedding(userRequestContent);
+            double[] requestEmbedding = EmbeddingMemo.getInstance().getEmbedding(embeddingProvider,
+                    userRequestContent, messageContext);
             if (requestEmbedding == null) {
                 if (log.isDebugEnabled()) {
                     log.debug(SemanticRoutingConstants.ERROR_EMBEDDING_COMPUTATION + ", routing to default.");
@@ -29,4 +29,11 @@ public class SemanticRoutingConstants {
     public static final String ERROR_JSON_PATH_PARSE = "Error parsing JSON path";
     public static final String ERROR_EMBEDDING_COMPUTATION = "Failed to compute embeddings";
     public static final String ERROR_NO_ROUTE_FOUND = "No matching route found and no default configured";
+
+    // Embedding memo shared by the semantic mediators
+    public static final String EMBEDDING_MEMO_SLOT = "ai.semantic.embeddingMemo";
+    public static final String EMBEDDING_MEMO_CAPACITY_PROPERTY = "apim.ai.embedding.memo.capacity";
+    public static final String EMBEDDING_MEMO_TTL_PROPERTY = "apim.ai.embedding.memo.ttl";
+    public static final int DEFAULT_EMBEDDING_MEMO_CAPACITY = 1000;
+    public static final long DEFAULT_EMBEDDING_MEMO_TTL_SECONDS = 600;
 }
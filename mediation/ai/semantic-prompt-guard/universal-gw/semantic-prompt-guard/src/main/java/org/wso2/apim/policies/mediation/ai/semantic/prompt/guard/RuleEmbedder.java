@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Embeds rule prompts while a rule set is being prepared.
+ * <p>
+ * Prompts already held by a {@link RuleEmbeddingStore} are taken from it. The remaining prompts are
+ * embedded concurrently, with a bounded number of calls in flight, and each call is retried with an
+ * exponential backoff before the rule set is rejected.
+ */
+public final class RuleEmbedder {
+
+    private static final Log logger = LogFactory.getLog(RuleEmbedder.class);
+
+    private RuleEmbedder() {
+    }
+
+    /**
+     * Embeds the given prompts.
+     *
+     * @param provider    the embedding provider
+     * @param prompts     the prompts to embed
+     * @param parallelism the maximum number of concurrent embedding calls
+     * @param store       the persisted embeddings to reuse and update, or null
+     * @return the embeddings, in the order of the prompts
+     * @throws APIManagementException if a prompt cannot be embedded
+     */
+    public static double[][] embedAll(EmbeddingProviderService provider, List<String> prompts, int parallelism,
+                                      RuleEmbeddingStore store) throws APIManagementException {
+        double[][] embeddings = new double[prompts.size()][];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < prompts.size(); i++) {
+            embeddings[i] = store != null ? store.get(prompts.get(i)) : null;
+            if (embeddings[i] == null) {
+                missing.add(i);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Embedding " + missing.size() + " of " + prompts.size() + " rule prompts.");
+        }
+        if (missing.isEmpty()) {
+            return embeddings;
+        }
+
+        int threads = Math.max(1, Math.min(parallelism, missing.size()));
+        if (threads == 1) {
+            for (int index : missing) {
+                embeddings[index] = embedWithRetry(provider, prompts.get(index), store);
+            }
+            return embeddings;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "SemanticPromptGuardRuleEmbedder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<double[]>> tasks = new ArrayList<>(missing.size());
+            for (int index : missing) {
+                String prompt = prompts.get(index);
+                tasks.add(() -> embedWithRetry(provider, prompt, store));
+            }
+            List<Future<double[]>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                embeddings[missing.get(i)] = results.get(i).get();
+            }
+            return embeddings;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new APIManagementException("Interrupted while embedding rule prompts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof APIManagementException) {
+                throw (APIManagementException) e.getCause();
+            }
+            throw new APIManagementException("Failed to embed rule prompts", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double[] embedWithRetry(EmbeddingProviderService provider, String prompt,
+                                           RuleEmbeddingStore store) throws APIManagementException {
+        long backoff = SemanticPromptGuardConstants.RULE_EMBEDDING_RETRY_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                double[] embedding = provider.getEmbedding(prompt);
+                if (embedding == null) {
+                    throw new APIManagementException("Embedding provider returned no embedding for a rule prompt");
+                }
+                if (store != null) {
+                    store.put(prompt, embedding);
+                }
+                return embedding;
+            } catch (APIManagementException e) {
+                if (attempt >= SemanticPromptGuardConstants.RULE_EMBEDDING_MAX_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warn("Failed to embed rule prompt (attempt " + attempt + ") - retrying in " + backoff
+                        + " ms.", e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff *= 2;
+            }
+        }
+    }
+}
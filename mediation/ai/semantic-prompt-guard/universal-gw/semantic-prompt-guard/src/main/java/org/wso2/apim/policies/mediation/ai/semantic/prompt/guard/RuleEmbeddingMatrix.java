@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import java.util.Arrays;
+
+/**
+ * Rule embeddings stored as unit-length float32 rows of a single contiguous array.
+ * <p>
+ * Rows are normalized when they are added, so the cosine similarity between a rule and a query
+ * reduces to a dot product with the normalized query. Rules with a zero vector are stored as zeros
+ * and score 0 against any query.
+ * <p>
+ * The dot product kernel is a scalar loop unrolled over four independent accumulators, which lets
+ * the JIT keep several multiply-add chains in flight without changing the summation order between
+ * runs.
+ * <p>
+ * Each row is also split into {@value #SEGMENTS} segments, and the norm of the remainder of the row
+ * after each segment boundary is kept. {@link #reaches(int, float[], float[], double)} uses these to
+ * bound the final score after every segment (Cauchy-Schwarz), and gives up on a rule as soon as the
+ * bound falls below the threshold.
+ */
+public final class RuleEmbeddingMatrix {
+
+    static final int SEGMENTS = 4;
+
+    /**
+     * Slack added to score bounds so that float rounding never prunes a rule that would match.
+     */
+    private static final double BOUND_EPSILON = 1e-5;
+
+    private final int rows;
+    private final int dimension;
+    private final float[] data;
+    private final int[] segmentStarts;
+    private final float[] tailNorms;
+
+    /**
+     * Creates an empty matrix.
+     *
+     * @param rows      the number of rules
+     * @param dimension the embedding dimension
+     */
+    public RuleEmbeddingMatrix(int rows, int dimension) {
+        if (rows < 0 || dimension <= 0) {
+            throw new IllegalArgumentException("Invalid rule matrix shape: " + rows + " x " + dimension);
+        }
+        if ((long) rows * dimension > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rule matrix of " + rows + " x " + dimension + " is too large");
+        }
+        this.rows = rows;
+        this.dimension = dimension;
+        this.data = new float[rows * dimension];
+        this.tailNorms = new float[rows * SEGMENTS];
+        this.segmentStarts = new int[SEGMENTS + 1];
+        for (int k = 1; k < SEGMENTS; k++) {
+            // Keep segment boundaries on multiples of four so that the unrolled kernel rarely needs a tail loop
+            segmentStarts[k] = (dimension * k / SEGMENTS) & ~3;
+        }
+        segmentStarts[SEGMENTS] = dimension;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Normalizes the given embedding and stores it as the given row.
+     *
+     * @param row       the row index
+     * @param embedding the rule embedding
+     * @throws IllegalArgumentException if the embedding does not match the matrix dimension
+     */
+    public void set(int row, double[] embedding) {
+        checkDimension(embedding);
+        double norm = l2Norm(embedding);
+        int offset = row * dimension;
+        if (norm == 0.0) {
+            Arrays.fill(data, offset, offset + dimension, 0f);
+        } else {
+            for (int i = 0; i < dimension; i++) {
+                data[offset + i] = (float) (embedding[i] / norm);
+            }
+        }
+        computeTailNorms(data, offset, tailNorms, row * SEGMENTS);
+    }
+
+    /**
+     * Converts a query embedding into the normalized form expected by {@link #score(int, float[])}.
+     *
+     * @param embedding the query embedding
+     * @return the normalized query, or null if the embedding is a zero vector
+     * @throws IllegalArgumentException if the embedding does not match the matrix dimension
+     */
+    public float[] normalizeQuery(double[] embedding) {
+        checkDimension(embedding);
+        double norm = l2Norm(embedding);
+        if (norm == 0.0) {
+            return null;
+        }
+        float[] query = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            query[i] = (float) (embedding[i] / norm);
+        }
+        return query;
+    }
+
+    /**
+     * Converts a vector into a query without normalizing it, such as the mean of several normalized
+     * embeddings. Its score against a rule is its dot product with the normalized rule.
+     *
+     * @param vector the query vector
+     * @return the query
+     * @throws IllegalArgumentException if the vector does not match the matrix dimension
+     */
+    public float[] toQuery(double[] vector) {
+        checkDimension(vector);
+        float[] query = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            query[i] = (float) vector[i];
+        }
+        return query;
+    }
+
+    /**
+     * Computes the norms of the remainder of a normalized query after each segment boundary, as used by
+     * {@link #reaches(int, float[], float[], double)}.
+     *
+     * @param query the query returned by {@link #normalizeQuery(double[])}
+     * @return the tail norms of the query
+     */
+    public float[] queryTailNorms(float[] query) {
+        float[] tails = new float[SEGMENTS];
+        computeTailNorms(query, 0, tails, 0);
+        return tails;
+    }
+
+    /**
+     * Computes the cosine similarity between a rule and a normalized query.
+     *
+     * @param row   the row index
+     * @param query the query returned by {@link #normalizeQuery(double[])}
+     * @return the cosine similarity
+     */
+    public double score(int row, float[] query) {
+        return dot(row * dimension, query, 0, dimension);
+    }
+
+    /**
+     * Checks whether the cosine similarity between a rule and a normalized query reaches the given value,
+     * stopping early once the remaining segments of the row cannot lift the score to that value.
+     *
+     * @param row           the row index
+     * @param query         the query returned by {@link #normalizeQuery(double[])}
+     * @param queryTails    the tail norms returned by {@link #queryTailNorms(float[])}
+     * @param minSimilarity the similarity the rule must reach
+     * @return {@code true} if the rule's similarity is at least the given value
+     */
+    public boolean reaches(int row, float[] query, float[] queryTails, double minSimilarity) {
+        int offset = row * dimension;
+        int tailOffset = row * SEGMENTS;
+        double partial = 0.0;
+        for (int k = 0; k < SEGMENTS; k++) {
+            partial += dot(offset, query, segmentStarts[k], segmentStarts[k + 1]);
+            if (k + 1 < SEGMENTS) {
+                double bound = partial + (double) tailNorms[tailOffset + k + 1] * queryTails[k + 1];
+                if (bound + BOUND_EPSILON < minSimilarity) {
+                    return false;
+                }
+            }
+        }
+        return partial >= minSimilarity;
+    }
+
+    /**
+     * Returns a copy of a normalized row.
+     *
+     * @param row the row index
+     * @return the row values
+     */
+    float[] copyRow(int row) {
+        return Arrays.copyOfRange(data, row * dimension, (row + 1) * dimension);
+    }
+
+    /**
+     * Adds a normalized row to the given accumulator.
+     *
+     * @param row         the row index
+     * @param accumulator the vector to add to
+     */
+    void addRowTo(int row, double[] accumulator) {
+        int offset = row * dimension;
+        for (int i = 0; i < dimension; i++) {
+            accumulator[i] += data[offset + i];
+        }
+    }
+
+    private float dot(int offset, float[] query, int from, int to) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = from;
+        int bound = to - ((to - from) & 3);
+        for (; i < bound; i += 4) {
+            s0 += data[offset + i] * query[i];
+            s1 += data[offset + i + 1] * query[i + 1];
+            s2 += data[offset + i + 2] * query[i + 2];
+            s3 += data[offset + i + 3] * query[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += data[offset + i] * query[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Stores the norm of the vector from each segment boundary to its end, starting with the full norm.
+     */
+    private void computeTailNorms(float[] vector, int offset, float[] tails, int tailOffset) {
+        double sum = 0.0;
+        for (int k = SEGMENTS - 1; k >= 0; k--) {
+            for (int i = segmentStarts[k]; i < segmentStarts[k + 1]; i++) {
+                sum += (double) vector[offset + i] * vector[offset + i];
+            }
+            tails[tailOffset + k] = (float) Math.sqrt(sum);
+        }
+    }
+
+    private void checkDimension(double[] embedding) {
+        if (embedding == null || embedding.length != dimension) {
+            throw new IllegalArgumentException("Expected an embedding of dimension " + dimension + " but got "
+                    + (embedding == null ? "null" : String.valueOf(embedding.length)));
+        }
+    }
+
+    private static double l2Norm(double[] vector) {
+        double sum = 0.0;
+        for (double v : vector) {
+            sum += v * v;
+        }
+        return Math.sqrt(sum);
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Persisted cache of rule embeddings, so that redeploying a policy or restarting the gateway does not
+ * embed unchanged rules again.
+ * <p>
+ * Embeddings are keyed by the SHA-256 hash of the rule text. The file also records the provider type,
+ * the embedding dimension and the embedding of a fixed probe text. Since the embedding provider does not
+ * expose its model, the probe embedding stands in for it: if the provider now embeds the probe
+ * differently, the model has changed and every stored embedding is discarded.
+ * <p>
+ * The file is binary:
+ * <pre>
+ *   int    magic
+ *   UTF    provider type
+ *   int    dimension
+ *   float  probe embedding (dimension values)
+ *   int    entry count
+ *   byte   text hash (32 bytes), float embedding (dimension values) (repeated)
+ * </pre>
+ * Several guards can share the file. Each one writes back the embeddings of its rules in use, merged
+ * with the entries other guards have written since, up to
+ * {@link SemanticPromptGuardConstants#RULE_EMBEDDING_CACHE_MAX_ENTRIES} entries.
+ */
+public class RuleEmbeddingStore {
+
+    private static final Log logger = LogFactory.getLog(RuleEmbeddingStore.class);
+
+    private static final int MAGIC = 0x53504731;
+    private static final int HASH_BYTES = 32;
+    private static final String PROBE_TEXT = "The quick brown fox jumps over the lazy dog.";
+
+    /**
+     * Minimum similarity between the stored and current probe embeddings for the model to be considered
+     * unchanged. Providers do not always return bit-identical vectors for the same input.
+     */
+    private static final double PROBE_MIN_SIMILARITY = 0.999;
+
+    /**
+     * Serializes the read-merge-write cycles of all guards in this gateway.
+     */
+    private static final Object SAVE_LOCK = new Object();
+
+    private final Path file;
+    private final String providerType;
+    private final double[] probe;
+    private final Map<String, float[]> stored;
+    private final Map<String, float[]> used = new LinkedHashMap<>();
+
+    private RuleEmbeddingStore(Path file, String providerType, double[] probe, Map<String, float[]> stored) {
+        this.file = file;
+        this.providerType = providerType;
+        this.probe = probe;
+        this.stored = stored;
+    }
+
+    /**
+     * Opens the store at the given file. A missing, unreadable or outdated file results in an empty store.
+     *
+     * @param file     the store file
+     * @param provider the embedding provider
+     * @return the store
+     * @throws APIManagementException if the probe text cannot be embedded
+     */
+    public static RuleEmbeddingStore open(Path file, EmbeddingProviderService provider)
+            throws APIManagementException {
+        String providerType = String.valueOf(provider.getType());
+        double[] probe = provider.getEmbedding(PROBE_TEXT);
+        Map<String, float[]> stored = new HashMap<>();
+        if (probe != null && Files.isRegularFile(file)) {
+            try {
+                stored = read(file, providerType, probe);
+            } catch (IOException e) {
+                logger.warn("Unable to read rule embedding cache " + file + " - rules will be embedded again.", e);
+            }
+        }
+        return new RuleEmbeddingStore(file, providerType, probe, stored);
+    }
+
+    /**
+     * Returns the stored embedding of a rule, if any.
+     *
+     * @param text the rule text
+     * @return the embedding, or null if it is not stored
+     */
+    public synchronized double[] get(String text) {
+        String hash = hash(text);
+        float[] embedding = stored.get(hash);
+        if (embedding == null) {
+            return null;
+        }
+        used.put(hash, embedding);
+        double[] result = new double[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            result[i] = embedding[i];
+        }
+        return result;
+    }
+
+    /**
+     * Records the embedding of a rule.
+     *
+     * @param text      the rule text
+     * @param embedding the embedding
+     */
+    public synchronized void put(String text, double[] embedding) {
+        float[] values = new float[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            values[i] = (float) embedding[i];
+        }
+        used.put(hash(text), values);
+    }
+
+    /**
+     * Writes the embeddings of the rules in use, merged with the entries currently in the file. The file
+     * is written to a uniquely named temporary file next to the target and moved into place, so that a
+     * failed write never leaves a truncated file behind and concurrent writers never share a file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        if (probe == null) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        synchronized (SAVE_LOCK) {
+            Map<String, float[]> entries = new LinkedHashMap<>();
+            for (Map.Entry<String, float[]> entry : used.entrySet()) {
+                if (entry.getValue().length == probe.length) {
+                    entries.put(entry.getKey(), entry.getValue());
+                }
+            }
+            if (Files.isRegularFile(file)) {
+                // Keep what other guards sharing the file have written since this store was opened
+                try {
+                    for (Map.Entry<String, float[]> entry : read(file, providerType, probe).entrySet()) {
+                        if (entries.size() >= SemanticPromptGuardConstants.RULE_EMBEDDING_CACHE_MAX_ENTRIES) {
+                            break;
+                        }
+                        entries.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                } catch (IOException e) {
+                    logger.warn("Unable to read rule embedding cache " + file + " - it will be rewritten.", e);
+                }
+            }
+            Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                write(temporary, entries);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    private void write(Path target, Map<String, float[]> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(providerType);
+            out.writeInt(probe.length);
+            for (double value : probe) {
+                out.writeFloat((float) value);
+            }
+            out.writeInt(entries.size());
+            for (Map.Entry<String, float[]> entry : entries.entrySet()) {
+                out.write(fromHex(entry.getKey()));
+                for (float value : entry.getValue()) {
+                    out.writeFloat(value);
+                }
+            }
+        }
+    }
+
+    private static Map<String, float[]> read(Path file, String providerType, double[] probe) throws IOException {
+        Map<String, float[]> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || !providerType.equals(in.readUTF())) {
+                logger.info("Rule embedding cache " + file + " belongs to another embedding provider - ignoring it.");
+                return entries;
+            }
+            int dimension = in.readInt();
+            if (dimension != probe.length) {
+                logger.info("Rule embedding cache " + file + " has a different dimension - ignoring it.");
+                return entries;
+            }
+            double dot = 0.0;
+            double storedNorm = 0.0;
+            double probeNorm = 0.0;
+            for (int i = 0; i < dimension; i++) {
+                double value = in.readFloat();
+                dot += value * probe[i];
+                storedNorm += value * value;
+                probeNorm += probe[i] * probe[i];
+            }
+            double denominator = Math.sqrt(storedNorm) * Math.sqrt(probeNorm);
+            if (denominator == 0.0 || dot / denominator < PROBE_MIN_SIMILARITY) {
+                logger.info("Rule embedding cache " + file + " was built with another embedding model - ignoring it.");
+                return entries;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte[] hash = new byte[HASH_BYTES];
+                in.readFully(hash);
+                float[] embedding = new float[dimension];
+                for (int j = 0; j < dimension; j++) {
+                    embedding[j] = in.readFloat();
+                }
+                entries.put(toHex(hash), embedding);
+            }
+        }
+        return entries;
+    }
+
+    private static String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return toHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+}
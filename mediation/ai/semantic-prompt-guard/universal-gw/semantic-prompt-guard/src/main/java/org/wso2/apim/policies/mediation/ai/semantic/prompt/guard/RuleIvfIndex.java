@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Arrays;
+
+/**
+ * Inverted file (IVF-flat) index over the trailing rows of a {@link RuleEmbeddingMatrix}, used to
+ * avoid scanning every allow rule of very large rule sets.
+ * <p>
+ * Rules are grouped around {@code sqrt(n)} centroids using spherical k-means on a sample of the rules.
+ * A query is compared with the centroids, and only the rules of the closest {@code probes} groups are
+ * re-ranked with their exact similarity. Candidates are scored in rule order, so the result is the
+ * first matching rule among the candidates. Since a matching rule can fall outside the probed groups,
+ * the index trades a small chance of missing a match for fewer comparisons; more probes lower that
+ * chance. Deny rules precede the indexed rows and are never indexed, so that a missed match can only
+ * block a request, never let one through.
+ */
+public class RuleIvfIndex {
+
+    private static final Log logger = LogFactory.getLog(RuleIvfIndex.class);
+
+    private final RuleEmbeddingMatrix centroids;
+    private final int[][] lists;
+
+    private RuleIvfIndex(RuleEmbeddingMatrix centroids, int[][] lists) {
+        this.centroids = centroids;
+        this.lists = lists;
+    }
+
+    /**
+     * Builds an index over the rows of the given matrix from the given row onwards.
+     *
+     * @param matrix   the rule embeddings
+     * @param firstRow the first row to index
+     * @return the index
+     */
+    public static RuleIvfIndex build(RuleEmbeddingMatrix matrix, int firstRow) {
+        long start = System.currentTimeMillis();
+        int rows = matrix.getRows() - firstRow;
+        int dimension = matrix.getDimension();
+        int listCount = Math.max(1, (int) Math.sqrt(rows));
+
+        // Train on an evenly spaced sample of the rules; the first centroids are taken from the sample
+        int sampleSize = Math.min(rows, listCount * SemanticPromptGuardConstants.IVF_TRAINING_SAMPLES_PER_LIST);
+        int[] sample = new int[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = firstRow + (int) ((long) i * rows / sampleSize);
+        }
+        RuleEmbeddingMatrix centroids = new RuleEmbeddingMatrix(listCount, dimension);
+        for (int c = 0; c < listCount; c++) {
+            double[] seed = new double[dimension];
+            matrix.addRowTo(sample[(int) ((long) c * sampleSize / listCount)], seed);
+            centroids.set(c, seed);
+        }
+
+        int[] assignment = new int[sampleSize];
+        for (int iteration = 0; iteration < SemanticPromptGuardConstants.IVF_TRAINING_ITERATIONS; iteration++) {
+            for (int i = 0; i < sampleSize; i++) {
+                assignment[i] = nearest(centroids, matrix.copyRow(sample[i]));
+            }
+            double[][] sums = new double[listCount][dimension];
+            int[] counts = new int[listCount];
+            for (int i = 0; i < sampleSize; i++) {
+                matrix.addRowTo(sample[i], sums[assignment[i]]);
+                counts[assignment[i]]++;
+            }
+            for (int c = 0; c < listCount; c++) {
+                // Keep the previous centroid of a group that lost all of its rules
+                if (counts[c] > 0) {
+                    centroids.set(c, sums[c]);
+                }
+            }
+        }
+
+        // Assign every rule; rows are visited in order, so each list is sorted by rule order
+        int[] listOf = new int[rows];
+        int[] sizes = new int[listCount];
+        for (int row = 0; row < rows; row++) {
+            listOf[row] = nearest(centroids, matrix.copyRow(firstRow + row));
+            sizes[listOf[row]]++;
+        }
+        int[][] lists = new int[listCount][];
+        for (int c = 0; c < listCount; c++) {
+            lists[c] = new int[sizes[c]];
+        }
+        int[] fill = new int[listCount];
+        for (int row = 0; row < rows; row++) {
+            lists[listOf[row]][fill[listOf[row]]++] = firstRow + row;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Built rule index with " + listCount + " lists over " + rows + " rules in "
+                    + (System.currentTimeMillis() - start) + " ms.");
+        }
+        return new RuleIvfIndex(centroids, lists);
+    }
+
+    /**
+     * Finds the first rule, in rule order, among the rules of the closest groups whose cosine
+     * similarity to the query reaches the given value.
+     *
+     * @param matrix        the rule embeddings the index was built over
+     * @param query         the normalized query
+     * @param minSimilarity the similarity a rule must reach to match
+     * @param probes        the number of closest groups to search
+     * @return the matching row, or -1 if no candidate matches
+     */
+    public int findFirstMatch(RuleEmbeddingMatrix matrix, float[] query, double minSimilarity, int probes) {
+        int listCount = lists.length;
+        int probeCount = Math.max(1, Math.min(probes, listCount));
+
+        // Select the closest groups by partial selection over the centroid scores
+        double[] scores = new double[listCount];
+        for (int c = 0; c < listCount; c++) {
+            scores[c] = centroids.score(c, query);
+        }
+        int[] probed = new int[probeCount];
+        int candidateCount = 0;
+        for (int p = 0; p < probeCount; p++) {
+            int best = 0;
+            for (int c = 1; c < listCount; c++) {
+                if (scores[c] > scores[best]) {
+                    best = c;
+                }
+            }
+            probed[p] = best;
+            scores[best] = Double.NEGATIVE_INFINITY;
+            candidateCount += lists[best].length;
+        }
+
+        int[] candidates = new int[candidateCount];
+        int position = 0;
+        for (int list : probed) {
+            System.arraycopy(lists[list], 0, candidates, position, lists[list].length);
+            position += lists[list].length;
+        }
+        Arrays.sort(candidates);
+
+        float[] queryTails = matrix.queryTailNorms(query);
+        for (int row : candidates) {
+            if (matrix.reaches(row, query, queryTails, minSimilarity)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static int nearest(RuleEmbeddingMatrix centroids, float[] vector) {
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int c = 0; c < centroids.getRows(); c++) {
+            double score = centroids.score(c, vector);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+}
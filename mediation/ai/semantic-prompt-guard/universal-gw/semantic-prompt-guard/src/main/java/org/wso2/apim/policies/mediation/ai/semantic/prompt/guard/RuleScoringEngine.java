@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the first rule whose similarity to a query reaches a threshold.
+ * <p>
+ * Rules are scored in contiguous chunks. Small rule sets are scored inline on the calling thread,
+ * while large ones are split across a bounded thread pool shared by every guard instance. The first
+ * chunk always runs on the calling thread, and chunks that cannot run on the pool are scored by the
+ * caller as well.
+ * <p>
+ * Scanning stops as soon as a match is found at a lower row than the one about to be scored, so a
+ * deny rule that matches early short-circuits the remaining deny and allow rules. The result is the
+ * same as scoring every rule and taking the lowest matching row. Within a rule, scoring stops once an
+ * upper bound of its similarity falls below the threshold (see {@link RuleEmbeddingMatrix}).
+ * <p>
+ * In ordered evaluation, rules are always scored on the calling thread in rule order, which does no
+ * work past the first match at the cost of latency on large rule sets.
+ */
+public class RuleScoringEngine {
+
+    private static volatile RuleScoringEngine instance;
+    private static final Object LOCK = new Object();
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final ThreadPoolExecutor executor;
+
+    private RuleScoringEngine() {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                SemanticPromptGuardConstants.MAX_SCORING_THREADS));
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(SemanticPromptGuardConstants.SCORING_QUEUE_SIZE), runnable -> {
+                    Thread thread = new Thread(runnable, "SemanticPromptGuardScorer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the global singleton instance of the scoring engine.
+     *
+     * @return the singleton instance
+     */
+    public static RuleScoringEngine getInstance() {
+        if (instance == null) {
+            synchronized (LOCK) {
+                if (instance == null) {
+                    instance = new RuleScoringEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Finds the lowest row of the matrix whose cosine similarity to the query is at least the given
+     * value.
+     *
+     * @param matrix        the rule embeddings
+     * @param query         the normalized query
+     * @param minSimilarity the similarity a rule must reach to match
+     * @param ordered       whether to score every rule in order on the calling thread
+     * @return the matching row, or -1 if no rule matches
+     */
+    public int findFirstMatch(RuleEmbeddingMatrix matrix, float[] query, double minSimilarity, boolean ordered) {
+        return findFirstMatch(matrix, query, minSimilarity, matrix.getRows(), ordered);
+    }
+
+    /**
+     * Finds the lowest of the leading rows of the matrix whose cosine similarity to the query is at least
+     * the given value.
+     *
+     * @param matrix        the rule embeddings
+     * @param query         the normalized query
+     * @param minSimilarity the similarity a rule must reach to match
+     * @param rows          the number of leading rows to score
+     * @param ordered       whether to score every rule in order on the calling thread
+     * @return the matching row, or -1 if none of the rows matches
+     */
+    public int findFirstMatch(RuleEmbeddingMatrix matrix, float[] query, double minSimilarity, int rows,
+                              boolean ordered) {
+        int chunkSize = SemanticPromptGuardConstants.SCORING_CHUNK_SIZE;
+        float[] queryTails = matrix.queryTailNorms(query);
+        AtomicInteger firstMatch = new AtomicInteger(NO_MATCH);
+
+        if (ordered || rows <= SemanticPromptGuardConstants.INLINE_SCORING_RULE_LIMIT) {
+            scoreChunk(matrix, query, queryTails, minSimilarity, 0, rows, firstMatch);
+        } else {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(rows / chunkSize);
+            for (int start = chunkSize; start < rows; start += chunkSize) {
+                final int from = start;
+                final int to = Math.min(rows, start + chunkSize);
+                tasks.add(CompletableFuture.runAsync(
+                        () -> scoreChunk(matrix, query, queryTails, minSimilarity, from, to, firstMatch), executor));
+            }
+            scoreChunk(matrix, query, queryTails, minSimilarity, 0, Math.min(rows, chunkSize), firstMatch);
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        }
+
+        int match = firstMatch.get();
+        return match == NO_MATCH ? -1 : match;
+    }
+
+    private static void scoreChunk(RuleEmbeddingMatrix matrix, float[] query, float[] queryTails,
+                                   double minSimilarity, int from, int to, AtomicInteger firstMatch) {
+        for (int row = from; row < to; row++) {
+            if (firstMatch.get() < row) {
+                // A rule with higher precedence has already matched
+                return;
+            }
+            if (matrix.reaches(row, query, queryTails, minSimilarity)) {
+                firstMatch.accumulateAndGet(row, Math::min);
+                return;
+            }
+        }
+    }
+}
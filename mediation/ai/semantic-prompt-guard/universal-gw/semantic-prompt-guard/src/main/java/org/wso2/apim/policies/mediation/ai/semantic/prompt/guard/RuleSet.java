@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, fully embedded set of guardrail rules.
+ * <p>
+ * Rules are held in evaluation order: all deny prompts, followed by all allow prompts. A guard publishes
+ * a rule set through a single volatile write, and each request reads it once, so a request is always
+ * evaluated against one consistent rule set.
+ */
+public final class RuleSet {
+
+    private final RuleEmbeddingMatrix embeddings;
+    private final RuleIvfIndex index;
+    private final List<SemanticPromptGuardConstants.PromptType> types;
+    private final int denyRuleCount;
+    private final List<String> contents;
+    private final SemanticPromptGuardConstants.RuleProcessingMode processingMode;
+
+    /**
+     * Creates a rule set.
+     *
+     * @param embeddings     the normalized rule embeddings, one row per rule
+     * @param index          the approximate index over the allow rule embeddings, or null
+     * @param types          the type of each rule
+     * @param contents       the prompt of each rule
+     * @param processingMode the processing mode implied by the rules
+     */
+    public RuleSet(RuleEmbeddingMatrix embeddings, RuleIvfIndex index,
+                   List<SemanticPromptGuardConstants.PromptType> types, List<String> contents,
+                   SemanticPromptGuardConstants.RuleProcessingMode processingMode) {
+        this.embeddings = embeddings;
+        this.index = index;
+        this.types = Collections.unmodifiableList(types);
+        int denyRules = 0;
+        for (SemanticPromptGuardConstants.PromptType type : types) {
+            if (type == SemanticPromptGuardConstants.PromptType.DENY) {
+                denyRules++;
+            }
+        }
+        this.denyRuleCount = denyRules;
+        this.contents = Collections.unmodifiableList(contents);
+        this.processingMode = processingMode;
+    }
+
+    public RuleEmbeddingMatrix getEmbeddings() {
+        return embeddings;
+    }
+
+    public RuleIvfIndex getIndex() {
+        return index;
+    }
+
+    public List<SemanticPromptGuardConstants.PromptType> getTypes() {
+        return types;
+    }
+
+    /**
+     * Returns the number of deny rules, which are held ahead of the allow rules.
+     *
+     * @return the number of deny rules
+     */
+    public int getDenyRuleCount() {
+        return denyRuleCount;
+    }
+
+    public List<String> getContents() {
+        return contents;
+    }
+
+    public SemanticPromptGuardConstants.RuleProcessingMode getProcessingMode() {
+        return processingMode;
+    }
+}
@@ -39,13 +39,13 @@ import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * SemanticPromptGuard is a Synapse mediator that applies semantic rule-based validation
@@ -63,8 +63,13 @@ import java.util.concurrent.Executors;
  * Based on a configurable similarity threshold, the payload is either allowed or blocked.
  * If a match is blocked, a structured assessment is added to the message context.
  *
- * <p>Supports optional JSONPath-based extraction for partial content evaluation,
- * and asynchronous embedding similarity calculation using a thread pool.
+ * <p>Supports optional JSONPath-based extraction for partial content evaluation. Rule similarity is
+ * computed by the shared {@link RuleScoringEngine}, which parallelizes large rule sets and stops at
+ * the first matching rule.
+ *
+ * <p>Rules are embedded when the guard is initialized and held in an immutable {@link RuleSet},
+ * published through a single volatile field, so that each request is evaluated against one consistent
+ * rule set.
  *
  * <p>This class implements {@link AbstractMediator} and {@link ManagedLifecycle},
  * enabling integration into the Synapse mediation engine and lifecycle management.
@@ -72,21 +77,28 @@ import java.util.concurrent.Executors;
  */
 public class SemanticPromptGuard extends AbstractMediator implements ManagedLifecycle {
     private static final Log logger = LogFactory.getLog(SemanticPromptGuard.class);
-    private ExecutorService executor;
 
     private String name;
     private String rules;
     private String jsonPath = "";
     private boolean showAssessment = false;
     private double threshold = 90;
+    private String evaluationMode = SemanticPromptGuardConstants.DEFAULT_EVALUATION_MODE;
+    private boolean approximateSearch = false;
+    private int approximateSearchProbes = SemanticPromptGuardConstants.DEFAULT_APPROXIMATE_SEARCH_PROBES;
+    private int embeddingParallelism = SemanticPromptGuardConstants.DEFAULT_EMBEDDING_PARALLELISM;
+    private int chunkSize = SemanticPromptGuardConstants.DEFAULT_CHUNK_SIZE;
+    private int chunkOverlap = SemanticPromptGuardConstants.DEFAULT_CHUNK_OVERLAP;
+    private String chunkUnit = SemanticPromptGuardConstants.DEFAULT_CHUNK_UNIT;
+    private String chunkAggregation = SemanticPromptGuardConstants.DEFAULT_CHUNK_AGGREGATION;
 
     private int embeddingDimension;
-    private double[][] ruleEmbeddings;
-    private List<SemanticPromptGuardConstants.PromptType> ruleTypes;
-    private List<String> ruleContent;
+    private volatile RuleSet ruleSet;
 
     private EmbeddingProviderService embeddingProvider;
-    private SemanticPromptGuardConstants.RuleProcessingMode processingMode;
+    private boolean orderedEvaluation;
+    private TextChunker.Unit chunkingUnit;
+    private SemanticPromptGuardConstants.ChunkAggregation chunkAggregationMode;
 
     /**
      * Initializes the SemanticPromptGuard mediator.
@@ -99,9 +111,6 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
             logger.debug("Initializing SemanticPromptGuard.");
         }
 
-        // Initialize thread pool
-        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-
         try {
             // Resolve and initialize the embedding provider
             embeddingProvider = ServiceReferenceHolder.getInstance().getEmbeddingProvider();
@@ -116,8 +125,13 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
             throw new IllegalStateException("Failed to initialize Semantic Prompt Guard " , e);
         }
 
+        orderedEvaluation = SemanticPromptGuardConstants.EvaluationMode.fromString(evaluationMode)
+                == SemanticPromptGuardConstants.EvaluationMode.ORDERED;
+        chunkingUnit = TextChunker.Unit.fromString(chunkUnit);
+        chunkAggregationMode = SemanticPromptGuardConstants.ChunkAggregation.fromString(chunkAggregation);
+
         // Generate the rule embeddings based on the provided rules
-        processRules(rules);
+        ruleSet = processRules(rules);
     }
 
     /**
@@ -128,15 +142,16 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
      * - ALLOW_ONLY: If only allow prompts are provided.
      * - HYBRID: If both are provided.
      *
-     * @param rules JSON string representing allow and deny prompt rules
-     *              Example:
-     *              {
-     *                "allowPrompts": ["allowed prompt 1", "allowed prompt 2"],
-     *                "denyPrompts": ["denied prompt 1", "denied prompt 2"]
-     *              }
+     * @param rules    JSON string representing allow and deny prompt rules
+     *                 Example:
+     *                 {
+     *                   "allowPrompts": ["allowed prompt 1", "allowed prompt 2"],
+     *                   "denyPrompts": ["denied prompt 1", "denied prompt 2"]
+     *                 }
+     * @return the embedded rule set
      * @throws RuntimeException if rules cannot be parsed or embeddings fail
      */
-    private void processRules(String rules) {
+    private RuleSet processRules(String rules) {
         try {
             Gson gson = new Gson();
             Type mapType = new TypeToken<Map<String, List<String>>>() {}.getType();
@@ -150,29 +165,42 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
             List<String> denyPrompts = rulesMap.getOrDefault("denyPrompts", Collections.emptyList());
             int totalPrompts = allowPrompts.size() + denyPrompts.size();
 
-            ruleEmbeddings = new double[totalPrompts][embeddingDimension];
-            ruleTypes = new ArrayList<>(totalPrompts);
-            ruleContent = new ArrayList<>();
-
-            int row = 0;
+            // Embed all prompts up front, deny prompts first, reusing persisted embeddings where possible
+            List<String> prompts = new ArrayList<>(totalPrompts);
+            prompts.addAll(denyPrompts);
+            prompts.addAll(allowPrompts);
+            RuleEmbeddingStore store = openRuleEmbeddingStore();
+            double[][] embeddings = RuleEmbedder.embedAll(embeddingProvider, prompts, embeddingParallelism, store);
+            saveRuleEmbeddingStore(store);
+
+            RuleEmbeddingMatrix ruleEmbeddings = new RuleEmbeddingMatrix(totalPrompts, embeddingDimension);
+            List<SemanticPromptGuardConstants.PromptType> ruleTypes = new ArrayList<>(totalPrompts);
+            for (int row = 0; row < totalPrompts; row++) {
+                ruleEmbeddings.set(row, embeddings[row]);
+                ruleTypes.add(row < denyPrompts.size()
+                        ? SemanticPromptGuardConstants.PromptType.DENY : SemanticPromptGuardConstants.PromptType.ALLOW);
+            }
 
-            // Embed deny prompts
+            SemanticPromptGuardConstants.RuleProcessingMode processingMode = null;
             if (!denyPrompts.isEmpty()) {
                 processingMode = SemanticPromptGuardConstants.RuleProcessingMode.DENY_ONLY;
-                row = embedPrompts(denyPrompts, SemanticPromptGuardConstants.PromptType.DENY, row);
             }
-
-            // Embed allow prompts
             if (!allowPrompts.isEmpty()) {
                 processingMode = (processingMode == null)
                         ? SemanticPromptGuardConstants.RuleProcessingMode.ALLOW_ONLY
                         : SemanticPromptGuardConstants.RuleProcessingMode.HYBRID;
-                embedPrompts(allowPrompts, SemanticPromptGuardConstants.PromptType.ALLOW, row);
             }
 
+            // Large allow rule sets can be searched through an approximate index instead of a full scan. Deny
+            // rules are always scored exactly, so that the index can never let a denied prompt through.
+            RuleIvfIndex ruleIndex = approximateSearch
+                    && allowPrompts.size() >= SemanticPromptGuardConstants.IVF_MIN_RULES
+                    ? RuleIvfIndex.build(ruleEmbeddings, denyPrompts.size()) : null;
+
             if (logger.isDebugEnabled()) {
                 logger.debug("Rules added successfully: " + rules);
             }
+            return new RuleSet(ruleEmbeddings, ruleIndex, ruleTypes, prompts, processingMode);
 
         } catch (APIManagementException e) {
             throw new IllegalArgumentException("Failed to process semantic rules: " + rules, e);
@@ -180,22 +208,42 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
     }
 
     /**
-     * Embeds the provided prompts and stores their metadata.
+     * Opens the persisted rule embedding cache, if the gateway configures one. The file is set by the
+     * gateway operator through a system property rather than by the policy, so that API publishers cannot
+     * make the gateway read or overwrite arbitrary files. A relative path is resolved against the Carbon
+     * home directory.
      *
-     * @param prompts list of textual prompts to embed
-     * @param type the prompt type (ALLOW or DENY)
-     * @return the next available row index after processing
-     * @throws APIManagementException if embedding fails
+     * @return the cache, or null if none is configured or it cannot be opened
      */
-    private int embedPrompts(List<String> prompts, SemanticPromptGuardConstants.PromptType type, int row)
-            throws APIManagementException {
+    private RuleEmbeddingStore openRuleEmbeddingStore() {
+        String cacheFile = System.getProperty(SemanticPromptGuardConstants.RULE_EMBEDDING_CACHE_FILE_PROPERTY);
+        if (cacheFile == null || cacheFile.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            Path file = Paths.get(cacheFile.trim());
+            String carbonHome = System.getProperty(SemanticPromptGuardConstants.CARBON_HOME_PROPERTY);
+            if (!file.isAbsolute() && carbonHome != null) {
+                file = Paths.get(carbonHome).resolve(file);
+            }
+            return RuleEmbeddingStore.open(file.normalize(), embeddingProvider);
+        } catch (APIManagementException | InvalidPathException e) {
+            logger.warn("Unable to open rule embedding cache " + cacheFile
+                    + " - rules will be embedded without it.", e);
+            return null;
+        }
+    }
 
-        for (String prompt : prompts) {
-            double[] embedding = embeddingProvider.getEmbedding(prompt);
-            storePrompt(row, embedding, type, prompt);
-            row++;
+    private void saveRuleEmbeddingStore(RuleEmbeddingStore store) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.save();
+        } catch (IOException e) {
+            logger.warn("Unable to write rule embedding cache "
+                    + System.getProperty(SemanticPromptGuardConstants.RULE_EMBEDDING_CACHE_FILE_PROPERTY), e);
         }
-        return row;
     }
 
     /**
@@ -203,8 +251,10 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
      */
     @Override
     public void destroy() {
-        // Release resources and shutdown executor
-        executor.shutdown();
+        // Scoring threads are shared by all guard instances and are not owned by this mediator
+        if (logger.isDebugEnabled()) {
+            logger.debug("Destroying SemanticPromptGuard.");
+        }
     }
 
     @Override
@@ -213,8 +263,11 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
             logger.debug("Starting payload validation.");
         }
 
+        // Evaluate the whole request against one rule set
+        RuleSet activeRules = ruleSet;
+
         try {
-            boolean isValid = applyRules(messageContext);
+            boolean isValid = applyRules(messageContext, activeRules);
 
             if (!isValid) {
                 // Set error properties in message context
@@ -226,7 +279,7 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
                         SemanticPromptGuardConstants.GUARDRAIL_ERROR_CODE);
 
                 // Build assessment details
-                String assessmentObject = buildAssessmentObject(messageContext);
+                String assessmentObject = buildAssessmentObject(messageContext, activeRules);
                 messageContext.setProperty(SynapseConstants.ERROR_MESSAGE, assessmentObject);
 
                 if (logger.isDebugEnabled()) {
@@ -262,10 +315,11 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
      * Otherwise, the entire payload is validated.
      *
      * @param messageContext The current message context.
+     * @param rules          The rule set to apply.
      * @return true if the content is allowed to pass; false if denied.
      * @throws APIManagementException if embedding or rule evaluation fails.
      */
-    private boolean applyRules(MessageContext messageContext) throws APIManagementException {
+    private boolean applyRules(MessageContext messageContext, RuleSet rules) throws APIManagementException {
         if (logger.isDebugEnabled()) {
             logger.debug("Applying semantic prompt guard rules.");
         }
@@ -277,14 +331,14 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
 
         // If no JSON path is specified, apply validation rules to the entire JSON content
         if (jsonPath == null || jsonPath.trim().isEmpty()) {
-            return isAllowed(jsonContent, messageContext);
+            return isAllowed(jsonContent, messageContext, rules);
         }
 
         String content = JsonPath.read(jsonContent, jsonPath).toString();
 
         // Remove wrapping quotes
         String cleanedText = content.replaceAll(SemanticPromptGuardConstants.JSON_CLEAN_REGEX, "").trim();
-        return isAllowed(cleanedText, messageContext);
+        return isAllowed(cleanedText, messageContext, rules);
     }
 
     /**
@@ -298,89 +352,112 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
      *
      * @param jsonContent     The extracted payload content to validate.
      * @param messageContext  The current Synapse message context.
+     * @param rules           The rule set to apply.
      * @return {@code true} if the content is allowed to proceed, {@code false} if blocked.
      * @throws APIManagementException if the embedding provider fails.
      */
-    private boolean isAllowed(String jsonContent, MessageContext messageContext) throws APIManagementException {
+    private boolean isAllowed(String jsonContent, MessageContext messageContext, RuleSet rules)
+            throws APIManagementException {
         if (jsonContent == null || jsonContent.isEmpty()) {
             return true;
         }
 
-        double[] similarityScores = calculateSimilarity(jsonContent);
-
-        // The loop first go through all deny prompt scores and then only allow prompt scores.
-        for (int i = 0; i < similarityScores.length; i++) {
-            double score = similarityScores[i] * 100;
-            SemanticPromptGuardConstants.PromptType type = ruleTypes.get(i);
-
-            if (score >= threshold) {
-                if (type == SemanticPromptGuardConstants.PromptType.DENY) {
-                    messageContext.setProperty(SemanticPromptGuardConstants.DENIED_PROMPT_KEY, ruleContent.get(i));
-                    return false; // Deny match overrides all
-                } else if (type == SemanticPromptGuardConstants.PromptType.ALLOW) {
-                    return true; // Allow match found
-                }
+        // Deny prompts are stored before allow prompts, so the first matching rule decides the outcome.
+        int match = findFirstMatchingRule(jsonContent, messageContext, rules);
+        if (match >= 0) {
+            if (rules.getTypes().get(match) == SemanticPromptGuardConstants.PromptType.DENY) {
+                messageContext.setProperty(SemanticPromptGuardConstants.DENIED_PROMPT_KEY,
+                        rules.getContents().get(match));
+                return false; // Deny match overrides all
             }
+            return true; // Allow match found
         }
 
         // Allow only if using deny-only mode
-        return processingMode == SemanticPromptGuardConstants.RuleProcessingMode.DENY_ONLY;
+        return rules.getProcessingMode() == SemanticPromptGuardConstants.RuleProcessingMode.DENY_ONLY;
     }
 
     /**
-     * Computes cosine similarity scores between the embedding vector of the given prompt
-     * and all stored rule embeddings concurrently.
+     * Finds the first rule, in rule order, whose cosine similarity with the embedding vector of the
+     * given prompt reaches the configured threshold.
      * <p>
-     * Cosine Similarity = (A • B) / (||A|| * ||B||)
+     * Cosine Similarity = (A • B) / (||A|| * ||B||). Rule embeddings are stored normalized, so only
+     * the query is normalized here and each score is a single dot product.
+     * <p>
+     * When chunking is enabled and the prompt is longer than one chunk, the prompt is scored as a set
+     * of overlapping chunks instead (see {@link #findFirstMatchingRule(List, RuleSet)}).
      *
-     * @param prompt The input text to be compared against rule embeddings.
-     * @return An array of similarity scores, one per rule embedding.
+     * @param prompt         The input text to be compared against rule embeddings.
+     * @param messageContext The current message context, used to reuse embeddings of other mediators.
+     * @param rules          The rule set to apply.
+     * @return The index of the first matching rule, or -1 if no rule matches.
      * @throws APIManagementException If the embedding provider fails to generate embeddings.
      */
-    private double[] calculateSimilarity(String prompt) throws APIManagementException {
-        double[] queryVector = embeddingProvider.getEmbedding(prompt);
-        double queryNorm = l2Norm(queryVector);
-        int numRules = ruleEmbeddings.length;
-        double[] results = new double[numRules];
-
-        List<CompletableFuture<Void>> tasks = new ArrayList<>(numRules);
-
-        // CosineSimilarity = dotProduct(ruleVec, queryVector)/ (l2Norm(ruleVec) * l2Norm(queryVector))
-        for (int i = 0; i < numRules; i++) {
-            final int rowIndex = i;
-            tasks.add(CompletableFuture.runAsync(() -> {
-                double[] ruleVec = ruleEmbeddings[rowIndex];
-                double dot = dotProduct(ruleVec, queryVector);
-                double ruleNorm = l2Norm(ruleVec);
-                double denominator = queryNorm * ruleNorm;
-                results[rowIndex] = (denominator == 0.0) ? 0.0 : (dot / denominator);
-            }, executor));
+    private int findFirstMatchingRule(String prompt, MessageContext messageContext, RuleSet rules)
+            throws APIManagementException {
+        List<String> chunks = TextChunker.split(prompt, chunkSize, chunkOverlap, chunkingUnit);
+        if (chunks.size() > 1) {
+            return findFirstMatchingRule(chunks, rules);
         }
-
-        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
-        return results;
+        double[] queryVector = EmbeddingMemo.getInstance().getEmbedding(embeddingProvider, prompt, messageContext);
+        float[] normalizedQuery = rules.getEmbeddings().normalizeQuery(queryVector);
+        if (normalizedQuery == null) {
+            return -1;
+        }
+        return findFirstMatch(rules, normalizedQuery);
     }
 
     /**
-     * Computes the dot product of two vectors.
+     * Finds the first rule, in rule order, that matches a prompt split into chunks. All chunks are
+     * embedded concurrently, and their similarity to each rule is aggregated:
+     * <p>
+     * - MAX: A rule matches if any chunk reaches the threshold, so content hidden deep in a long
+     *   prompt is still caught.
+     * - MEAN: A rule matches if the mean similarity of all chunks reaches the threshold, which is the
+     *   similarity of the rule to the mean of the normalized chunk embeddings.
+     *
+     * @param chunks The chunks of the input text.
+     * @param rules  The rule set to apply.
+     * @return The index of the first matching rule, or -1 if no rule matches.
+     * @throws APIManagementException If the embedding provider fails to generate embeddings.
      */
-    private double dotProduct(double[] a, double[] b) {
-        double result = 0.0;
-        for (int i = 0; i < a.length; i++) {
-            result += a[i] * b[i];
+    private int findFirstMatchingRule(List<String> chunks, RuleSet rules) throws APIManagementException {
+        List<double[]> chunkVectors = TextChunker.embedAll(embeddingProvider, chunks);
+        RuleEmbeddingMatrix ruleEmbeddings = rules.getEmbeddings();
+
+        if (chunkAggregationMode == SemanticPromptGuardConstants.ChunkAggregation.MEAN) {
+            double[] mean = TextChunker.meanPool(chunkVectors);
+            return mean == null ? -1 : findFirstMatch(rules, ruleEmbeddings.toQuery(mean));
         }
-        return result;
+
+        int firstMatch = -1;
+        for (double[] chunkVector : chunkVectors) {
+            float[] normalizedQuery = ruleEmbeddings.normalizeQuery(chunkVector);
+            if (normalizedQuery == null) {
+                continue;
+            }
+            int match = findFirstMatch(rules, normalizedQuery);
+            if (match >= 0 && (firstMatch < 0 || match < firstMatch)) {
+                firstMatch = match;
+            }
+            if (firstMatch == 0) {
+                break; // No rule precedes the first one
+            }
+        }
+        return firstMatch;
     }
 
-    /**
-     * Computes the Euclidean (L2) norm of a vector.
-     */
-    private double l2Norm(double[] vector) {
-        double sum = 0.0;
-        for (double v : vector) {
-            sum += v * v;
+    private int findFirstMatch(RuleSet rules, float[] query) {
+        if (rules.getIndex() != null) {
+            int match = rules.getDenyRuleCount() > 0
+                    ? RuleScoringEngine.getInstance().findFirstMatch(rules.getEmbeddings(), query, threshold / 100,
+                    rules.getDenyRuleCount(), orderedEvaluation)
+                    : -1;
+            return match >= 0 ? match : rules.getIndex().findFirstMatch(rules.getEmbeddings(), query,
+                    threshold / 100, approximateSearchProbes);
         }
-        return Math.sqrt(sum);
+        return RuleScoringEngine.getInstance().findFirstMatch(rules.getEmbeddings(), query, threshold / 100,
+                orderedEvaluation);
     }
 
     /**
@@ -389,9 +466,10 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
      * based on configuration and evaluation mode.
      *
      * @param messageContext The Synapse message context used to extract request direction and rule violation details.
+     * @param rules          The rule set the request was evaluated against.
      * @return A JSON string representing the guardrail assessment result.
      */
-    private String buildAssessmentObject(MessageContext messageContext) {
+    private String buildAssessmentObject(MessageContext messageContext, RuleSet rules) {
         if (logger.isDebugEnabled()) {
             logger.debug("Building guardrail assessment object.");
         }
@@ -406,7 +484,7 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
         if (showAssessment) {
             JSONObject assessmentDetails = new JSONObject();
 
-            switch (processingMode) {
+            switch (rules.getProcessingMode()) {
                 case DENY_ONLY:
                     assessmentDetails.put("message", "One or more semantic rules are violated.");
                     assessmentDetails.put("deniedRule",
@@ -417,9 +495,9 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
                 case HYBRID:
                     assessmentDetails.put("message", "None of the allowed prompts are met.");
                     JSONArray allowedRulesArray = new JSONArray();
-                    for (int i = 0; i < ruleTypes.size(); i++) {
-                        if (SemanticPromptGuardConstants.PromptType.ALLOW.equals(ruleTypes.get(i))) {
-                            allowedRulesArray.put(ruleContent.get(i));
+                    for (int i = 0; i < rules.getTypes().size(); i++) {
+                        if (SemanticPromptGuardConstants.PromptType.ALLOW.equals(rules.getTypes().get(i))) {
+                            allowedRulesArray.put(rules.getContents().get(i));
                         }
                     }
                     assessmentDetails.put("allowedRules", allowedRulesArray);
@@ -447,24 +525,6 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
         return JsonUtil.jsonPayloadToString(axis2MC);
     }
 
-    /**
-     * Stores the prompt metadata and embedding vector in the in-memory store.
-     *
-     * @param row       the index (row) at which to store the embedding vector
-     * @param embedding the double array representing the embedding vector
-     * @param type      the prompt type classification
-     * @param prompt    the original prompt string
-     */
-    private void storePrompt(int row, double[] embedding, SemanticPromptGuardConstants.PromptType type, String prompt) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(String.format("Storing prompt at row %d | Type: %s", row, type));
-        }
-
-        System.arraycopy(embedding, 0, ruleEmbeddings[row], 0, embeddingDimension);
-        ruleTypes.add(type);
-        ruleContent.add(prompt);
-    }
-
     public String getName() {
 
         return name;
@@ -514,4 +574,100 @@ public class SemanticPromptGuard extends AbstractMediator implements ManagedLife
 
         this.threshold = threshold;
     }
+
+    public String getEvaluationMode() {
+
+        return evaluationMode;
+    }
+
+    public void setEvaluationMode(String evaluationMode) {
+
+        this.evaluationMode = evaluationMode;
+    }
+
+    public boolean isApproximateSearch() {
+
+        return approximateSearch;
+    }
+
+    public void setApproximateSearch(boolean approximateSearch) {
+
+        this.approximateSearch = approximateSearch;
+    }
+
+    public int getApproximateSearchProbes() {
+
+        return approximateSearchProbes;
+    }
+
+    public void setApproximateSearchProbes(int approximateSearchProbes) {
+
+        this.approximateSearchProbes = approximateSearchProbes;
+    }
+
+    public int getEmbeddingParallelism() {
+
+        return embeddingParallelism;
+    }
+
+    public void setEmbeddingParallelism(int embeddingParallelism) {
+
+        this.embeddingParallelism = embeddingParallelism;
+    }
+
+    /**
+     * The rule embedding cache file can no longer be set by the policy, as that let API publishers write
+     * to any file on the gateway. The property is still accepted, and ignored, so that policies deployed
+     * with it keep deploying.
+     *
+     * @param ruleEmbeddingCacheFile ignored
+     */
+    @Deprecated
+    public void setRuleEmbeddingCacheFile(String ruleEmbeddingCacheFile) {
+
+        if (ruleEmbeddingCacheFile != null && !ruleEmbeddingCacheFile.trim().isEmpty()) {
+            logger.warn("ruleEmbeddingCacheFile is no longer supported - set the "
+                    + SemanticPromptGuardConstants.RULE_EMBEDDING_CACHE_FILE_PROPERTY + " system property instead.");
+        }
+    }
+
+    public int getChunkSize() {
+
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkOverlap() {
+
+        return chunkOverlap;
+    }
+
+    public void setChunkOverlap(int chunkOverlap) {
+
+        this.chunkOverlap = chunkOverlap;
+    }
+
+    public String getChunkUnit() {
+
+        return chunkUnit;
+    }
+
+    public void setChunkUnit(String chunkUnit) {
+
+        this.chunkUnit = chunkUnit;
+    }
+
+    public String getChunkAggregation() {
+
+        return chunkAggregation;
+    }
+
+    public void setChunkAggregation(String chunkAggregation) {
+
+        this.chunkAggregation = chunkAggregation;
+    }
 }
@@ -35,6 +35,36 @@ public class SemanticPromptGuardConstants {
     public static final String JSON_CLEAN_REGEX = "^\"|\"$";
     public static final String DENIED_PROMPT_KEY = "DENIED_PROMPT";
 
+    public static final String EMBEDDING_MEMO_SLOT = "ai.semantic.embeddingMemo";
+    public static final String EMBEDDING_MEMO_CAPACITY_PROPERTY = "apim.ai.embedding.memo.capacity";
+    public static final String EMBEDDING_MEMO_TTL_PROPERTY = "apim.ai.embedding.memo.ttl";
+    public static final int DEFAULT_EMBEDDING_MEMO_CAPACITY = 1000;
+    public static final long DEFAULT_EMBEDDING_MEMO_TTL_SECONDS = 600;
+
+    public static final int SCORING_CHUNK_SIZE = 128;
+    public static final int INLINE_SCORING_RULE_LIMIT = 256;
+    public static final int MAX_SCORING_THREADS = 8;
+    public static final int SCORING_QUEUE_SIZE = 1024;
+    public static final String DEFAULT_EVALUATION_MODE = "PARALLEL";
+    public static final int IVF_MIN_RULES = 1000;
+    public static final int IVF_TRAINING_ITERATIONS = 5;
+    public static final int IVF_TRAINING_SAMPLES_PER_LIST = 64;
+    public static final int DEFAULT_APPROXIMATE_SEARCH_PROBES = 8;
+    public static final int DEFAULT_EMBEDDING_PARALLELISM = 4;
+    public static final int RULE_EMBEDDING_MAX_ATTEMPTS = 3;
+    public static final long RULE_EMBEDDING_RETRY_BACKOFF_MILLIS = 500;
+    public static final int RULE_EMBEDDING_CACHE_MAX_ENTRIES = 100000;
+    public static final String RULE_EMBEDDING_CACHE_FILE_PROPERTY =
+            "apim.ai.semantic.prompt.guard.rule.embedding.cache";
+    public static final String CARBON_HOME_PROPERTY = "carbon.home";
+    public static final int DEFAULT_CHUNK_SIZE = 0;
+    public static final int DEFAULT_CHUNK_OVERLAP = 0;
+    public static final String DEFAULT_CHUNK_UNIT = "CHARACTERS";
+    public static final String DEFAULT_CHUNK_AGGREGATION = "MAX";
+    public static final int MAX_CHUNKS = 64;
+    public static final int CHUNK_EMBEDDING_THREADS = 8;
+    public static final int CHUNK_EMBEDDING_QUEUE_SIZE = 1024;
+
     public enum PromptType {
         ALLOW,
         DENY
@@ -45,4 +75,34 @@ public class SemanticPromptGuardConstants {
         DENY_ONLY,
         HYBRID
     }
+
+    public enum ChunkAggregation {
+        MAX,
+        MEAN;
+
+        /**
+         * Resolves an aggregation name, falling back to MAX for unknown values.
+         *
+         * @param name the aggregation name, case insensitive
+         * @return the chunk aggregation
+         */
+        public static ChunkAggregation fromString(String name) {
+            return name != null && MEAN.name().equalsIgnoreCase(name.trim()) ? MEAN : MAX;
+        }
+    }
+
+    public enum EvaluationMode {
+        PARALLEL,
+        ORDERED;
+
+        /**
+         * Resolves an evaluation mode name, falling back to PARALLEL for unknown values.
+         *
+         * @param name the mode name, case insensitive
+         * @return the evaluation mode
+         */
+        public static EvaluationMode fromString(String name) {
+            return name != null && ORDERED.name().equalsIgnoreCase(name.trim()) ? ORDERED : PARALLEL;
+        }
+    }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sliding-window chunking of long texts, so that they can be embedded as several shorter pieces.
+ * <p>
+ * Windows are measured in characters or in tokens. Tokens are approximated by runs of non-whitespace
+ * characters, since the embedding provider does not expose its tokenizer. Consecutive windows share the
+ * configured overlap, so that content spanning a window boundary is fully contained in one of them. A
+ * text is split into at most {@value SemanticPromptGuardConstants#MAX_CHUNKS} windows; longer texts get proportionally
+ * larger windows rather than losing their tail.
+ * <p>
+ * Chunks are embedded concurrently on a bounded pool shared by all mediators of this bundle.
+ */
+public final class TextChunker {
+
+    private static final Log logger = LogFactory.getLog(TextChunker.class);
+
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\S+");
+
+    private static volatile ThreadPoolExecutor executor;
+    private static final Object LOCK = new Object();
+
+    /**
+     * The unit in which chunk sizes and overlaps are measured.
+     */
+    public enum Unit {
+        CHARACTERS,
+        TOKENS;
+
+        /**
+         * Resolves a unit name, falling back to CHARACTERS for unknown values.
+         *
+         * @param name the unit name, case insensitive
+         * @return the unit
+         */
+        public static Unit fromString(String name) {
+            return name != null && TOKENS.name().equalsIgnoreCase(name.trim()) ? TOKENS : CHARACTERS;
+        }
+    }
+
+    private TextChunker() {
+    }
+
+    /**
+     * Splits a text into overlapping windows.
+     *
+     * @param text    the text to split
+     * @param size    the window size; 0 or less disables chunking
+     * @param overlap the overlap between consecutive windows
+     * @param unit    the unit of the size and overlap
+     * @return the windows, or a single element holding the text if it fits in one window
+     */
+    public static List<String> split(String text, int size, int overlap, Unit unit) {
+        if (text == null || size <= 0) {
+            return Collections.singletonList(text);
+        }
+        if (unit == Unit.TOKENS) {
+            List<int[]> tokens = new ArrayList<>();
+            Matcher matcher = TOKEN_PATTERN.matcher(text);
+            while (matcher.find()) {
+                tokens.add(new int[]{matcher.start(), matcher.end()});
+            }
+            if (tokens.size() <= size) {
+                return Collections.singletonList(text);
+            }
+            List<String> chunks = new ArrayList<>();
+            for (int[] window : windows(tokens.size(), size, overlap)) {
+                chunks.add(text.substring(tokens.get(window[0])[0], tokens.get(window[1] - 1)[1]));
+            }
+            return chunks;
+        }
+        if (text.length() <= size) {
+            return Collections.singletonList(text);
+        }
+        List<String> chunks = new ArrayList<>();
+        for (int[] window : windows(text.length(), size, overlap)) {
+            chunks.add(text.substring(window[0], window[1]));
+        }
+        return chunks;
+    }
+
+    /**
+     * Computes the [start, end) windows over a sequence of the given length.
+     */
+    private static List<int[]> windows(int length, int size, int overlap) {
+        int maxChunks = SemanticPromptGuardConstants.MAX_CHUNKS;
+        int effectiveOverlap = Math.max(0, Math.min(overlap, size - 1));
+        int step = size - effectiveOverlap;
+        if ((length - effectiveOverlap + step - 1) / step > maxChunks) {
+            // Grow the windows so that the text fits in the maximum number of chunks
+            step = (length - effectiveOverlap + maxChunks - 1) / maxChunks;
+            size = step + effectiveOverlap;
+        }
+        List<int[]> windows = new ArrayList<>();
+        for (int start = 0; ; start += step) {
+            int end = Math.min(length, start + size);
+            windows.add(new int[]{start, end});
+            if (end == length) {
+                return windows;
+            }
+        }
+    }
+
+    /**
+     * Embeds the given chunks concurrently. Embeddings are looked up in, and added to, the shared
+     * {@link EmbeddingMemo}.
+     *
+     * @param provider the embedding provider
+     * @param chunks   the chunks to embed
+     * @return the embeddings, in the order of the chunks
+     * @throws APIManagementException if a chunk cannot be embedded
+     */
+    public static List<double[]> embedAll(EmbeddingProviderService provider, List<String> chunks)
+            throws APIManagementException {
+        List<CompletableFuture<double[]>> tasks = new ArrayList<>(chunks.size());
+        for (int i = 1; i < chunks.size(); i++) {
+            String chunk = chunks.get(i);
+            tasks.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return EmbeddingMemo.getInstance().getEmbedding(provider, chunk, null);
+                } catch (APIManagementException e) {
+                    throw new CompletionException(e);
+                }
+            }, getExecutor()));
+        }
+        List<double[]> embeddings = new ArrayList<>(chunks.size());
+        // The first chunk is embedded on the calling thread while the others are in flight
+        embeddings.add(EmbeddingMemo.getInstance().getEmbedding(provider, chunks.get(0), null));
+        try {
+            for (CompletableFuture<double[]> task : tasks) {
+                embeddings.add(task.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof APIManagementException) {
+                throw (APIManagementException) e.getCause();
+            }
+            throw new APIManagementException("Failed to embed request chunks", e.getCause());
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Embedded request content as " + chunks.size() + " chunks.");
+        }
+        return embeddings;
+    }
+
+    /**
+     * Averages the unit-length forms of the given embeddings. The result is not normalized, so its dot
+     * product with a unit vector is the mean cosine similarity of the embeddings to that vector.
+     *
+     * @param embeddings the embeddings to average
+     * @return the mean of the normalized embeddings
+     */
+    public static double[] meanPool(List<double[]> embeddings) {
+        double[] mean = null;
+        for (double[] embedding : embeddings) {
+            if (embedding == null) {
+                continue;
+            }
+            if (mean == null) {
+                mean = new double[embedding.length];
+            }
+            double norm = 0.0;
+            for (double v : embedding) {
+                norm += v * v;
+            }
+            norm = Math.sqrt(norm);
+            if (norm == 0.0) {
+                continue;
+            }
+            for (int i = 0; i < mean.length; i++) {
+                mean[i] += embedding[i] / norm;
+            }
+        }
+        if (mean != null) {
+            for (int i = 0; i < mean.length; i++) {
+                mean[i] /= embeddings.size();
+            }
+        }
+        return mean;
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (LOCK) {
+                if (executor == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    int threads = SemanticPromptGuardConstants.CHUNK_EMBEDDING_THREADS;
+                    int queueSize = SemanticPromptGuardConstants.CHUNK_EMBEDDING_QUEUE_SIZE;
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(queueSize), runnable -> {
+                                Thread thread = new Thread(runnable,
+                                        "SemanticChunkEmbedder-" + threadCount.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }, new ThreadPoolExecutor.CallerRunsPolicy());
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+}
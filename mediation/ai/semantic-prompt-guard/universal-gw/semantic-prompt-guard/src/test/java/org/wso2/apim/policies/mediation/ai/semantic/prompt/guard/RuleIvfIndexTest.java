@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.prompt.guard;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Compares the matches of {@link RuleIvfIndex} with an exact scan of every rule on synthetic embeddings.
+ * <p>
+ * Rules are drawn either around a number of topics, as embeddings of similar prompts are in practice, or
+ * uniformly on the sphere, where the index has no structure to exploit. Queries are noisy copies of random
+ * rules. With the default number of probes over {@code sqrt(n)} lists, the index finds a match for at least
+ * 97% of the queries that the exact scan matches, where a single probe finds about 80%.
+ */
+public class RuleIvfIndexTest {
+
+    private static final long SEED = 42L;
+    private static final int RULES = 4096;
+    private static final int DIMENSION = 64;
+    private static final int QUERIES = 1000;
+    private static final double MIN_DEFAULT_RECALL = 0.97;
+
+    /**
+     * A rule matrix with its queries and the matches of an exact scan.
+     */
+    private static class Dataset {
+        private final RuleEmbeddingMatrix matrix = new RuleEmbeddingMatrix(RULES, DIMENSION);
+        private final float[][] queries = new float[QUERIES][];
+        private final int[] exactMatches = new int[QUERIES];
+        private final double minSimilarity;
+        private final RuleIvfIndex index;
+
+        /**
+         * @param topics        the number of topics, or 0 for rules without structure
+         * @param querySpread   the noise added to a rule to form a query, relative to the rule
+         * @param minSimilarity the similarity a rule must reach to match
+         */
+        Dataset(int topics, double querySpread, double minSimilarity) {
+            this.minSimilarity = minSimilarity;
+            Random random = new Random(SEED);
+            double[][] centers = new double[Math.max(1, topics)][];
+            for (int t = 0; t < centers.length; t++) {
+                centers[t] = topics > 0 ? gaussian(random, 1.0) : new double[DIMENSION];
+            }
+            double[][] rules = new double[RULES][];
+            for (int row = 0; row < RULES; row++) {
+                rules[row] = add(centers[random.nextInt(centers.length)], gaussian(random, 1.0));
+                matrix.set(row, rules[row]);
+            }
+            index = RuleIvfIndex.build(matrix, 0);
+
+            RuleScoringEngine engine = RuleScoringEngine.getInstance();
+            for (int q = 0; q < QUERIES; q++) {
+                double[] rule = rules[random.nextInt(RULES)];
+                double noise = querySpread * Math.sqrt(dot(rule, rule) / DIMENSION);
+                queries[q] = matrix.normalizeQuery(add(rule, gaussian(random, noise)));
+                exactMatches[q] = engine.findFirstMatch(matrix, queries[q], minSimilarity, true);
+            }
+        }
+
+        /**
+         * Returns the fraction of the queries matched by the exact scan that the index matches as well.
+         */
+        double recall(int probes) {
+            int expected = 0;
+            int found = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                if (exactMatches[q] < 0) {
+                    continue;
+                }
+                expected++;
+                if (index.findFirstMatch(matrix, queries[q], minSimilarity, probes) >= 0) {
+                    found++;
+                }
+            }
+            Assert.assertTrue("Too few queries match any rule: " + expected, expected > QUERIES / 2);
+            return (double) found / expected;
+        }
+    }
+
+    @Test
+    public void testDefaultProbesRecallWithTopics() {
+        assertDefaultProbesRecall(new Dataset(256, 0.6, 0.75));
+    }
+
+    @Test
+    public void testDefaultProbesRecallWithoutStructure() {
+        assertDefaultProbesRecall(new Dataset(0, 0.4, 0.85));
+    }
+
+    @Test
+    public void testAllProbesMatchExactScan() {
+        Dataset dataset = new Dataset(256, 0.6, 0.75);
+        int lists = (int) Math.sqrt(RULES);
+        for (int q = 0; q < QUERIES; q++) {
+            Assert.assertEquals(dataset.exactMatches[q],
+                    dataset.index.findFirstMatch(dataset.matrix, dataset.queries[q], dataset.minSimilarity, lists));
+        }
+    }
+
+    @Test
+    public void testNoFalseMatches() {
+        Dataset dataset = new Dataset(256, 0.6, 0.75);
+        for (int q = 0; q < QUERIES; q++) {
+            int match = dataset.index.findFirstMatch(dataset.matrix, dataset.queries[q], dataset.minSimilarity,
+                    SemanticPromptGuardConstants.DEFAULT_APPROXIMATE_SEARCH_PROBES);
+            if (match >= 0) {
+                // The exact scan returns the first matching rule, so an approximate match cannot precede it
+                Assert.assertTrue(dataset.exactMatches[q] >= 0 && match >= dataset.exactMatches[q]);
+                Assert.assertTrue(dataset.matrix.score(match, dataset.queries[q]) >= dataset.minSimilarity - 1e-6);
+            }
+        }
+    }
+
+    private static void assertDefaultProbesRecall(Dataset dataset) {
+        double recall = dataset.recall(SemanticPromptGuardConstants.DEFAULT_APPROXIMATE_SEARCH_PROBES);
+        double singleProbeRecall = dataset.recall(1);
+        Assert.assertTrue("Recall with the default probes is " + recall, recall >= MIN_DEFAULT_RECALL);
+        Assert.assertTrue("Recall with a single probe is " + singleProbeRecall + ", expected less than "
+                + recall, singleProbeRecall < recall);
+    }
+
+    private static double[] gaussian(Random random, double scale) {
+        double[] vector = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = random.nextGaussian() * scale;
+        }
+        return vector;
+    }
+
+    private static double[] add(double[] a, double[] b) {
+        double[] sum = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -21,16 +21,19 @@ package org.wso2.apim.policies.mediation.ai.semantic.tool.filtering;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
  * Thread-safe LRU embedding cache for storing tool embeddings per API.
@@ -41,33 +44,64 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  *   <li>Level 2: Tool description hash → Embedding entry (bounded by maxToolsPerAPI)</li>
  * </ul>
  * <p>
- * Both levels use LRU eviction when capacity is reached. The cache is thread-safe
- * using a {@link ReentrantReadWriteLock}.
+ * Both levels use LRU eviction when capacity is reached. Lookups are lock-free: both levels are
+ * {@link ConcurrentHashMap}s, and access times are only written when they have moved on by more than
+ * {@link SemanticToolFilteringConstants#ACCESS_TIME_GRANULARITY_MILLIS}, so concurrent hits rarely
+ * write to shared memory. Adding entries and evicting them are serialized on a single lock.
  * <p>
+ * Eviction order is kept in insertion-ordered queues that readers never touch. When the entry at the
+ * head of a queue has been accessed since it was queued, it is moved to the back instead of being
+ * evicted (second chance), so that eviction stays O(1) amortized and approximates LRU order.
+ * <p>
+ * The embeddings of an API are kept as float32 rows of a {@link ToolEmbeddingStore} slab with
+ * pre-computed norms. Cache hits return views over the slab, so reading an embedding neither
+ * copies nor allocates a vector.
+ * <p>
+ * When a byte budget is set through the {@code apim.ai.tool.filtering.cache.max.bytes} system property
+ * or {@link #setMaxBytes(long)}, the count limits are not applied. The cache then tracks the bytes held
+ * by each entry and makes room for new tools by evicting the LRU tools of the least recently used other
+ * API, falling back to those of the API being added to. Occupancy is reported through the
+ * {@link EmbeddingCacheMBean} registered as
+ * {@value SemanticToolFilteringConstants#EMBEDDING_CACHE_MBEAN_NAME}.
  */
-public class EmbeddingCache {
+public class EmbeddingCache implements EmbeddingCacheMBean {
 
     private static final Log logger = LogFactory.getLog(EmbeddingCache.class);
 
     private static volatile EmbeddingCache instance;
     private static final Object LOCK = new Object();
 
-    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-    private final Map<String, APICache> cache = new LinkedHashMap<>();
-    private int maxAPIs;
-    private int maxToolsPerAPI;
+    private final Object writeLock = new Object();
+    private final ConcurrentHashMap<String, APICache> cache = new ConcurrentHashMap<>();
+    /**
+     * API IDs in eviction order, mapped to the access time each API had when it was queued.
+     * Guarded by the write lock.
+     */
+    private final LinkedHashMap<String, Long> apiQueue = new LinkedHashMap<>();
+    private volatile int maxAPIs;
+    private volatile int maxToolsPerAPI;
+    private volatile long maxBytes;
+    private volatile long usedBytes;
+    private volatile long evictedTools;
 
     /**
-     * Represents a cached embedding entry for a single tool.
+     * Represents a cached embedding entry for a single tool. The entry is a read-only view over a
+     * row of the API's embedding slab.
      */
     public static class EmbeddingEntry {
         private final String name;
-        private final double[] embedding;
-        private long lastAccessed;
+        private final float[] slab;
+        private final int offset;
+        private final int dimension;
+        private final double norm;
+        private volatile long lastAccessed;
 
-        public EmbeddingEntry(String name, double[] embedding) {
+        EmbeddingEntry(String name, float[] slab, int offset, int dimension, double norm) {
             this.name = name;
-            this.embedding = embedding != null ? embedding.clone() : new double[0];
+            this.slab = slab;
+            this.offset = offset;
+            this.dimension = dimension;
+            this.norm = norm;
             this.lastAccessed = System.currentTimeMillis();
         }
 
@@ -75,16 +109,60 @@ public class EmbeddingCache {
             return name;
         }
 
+        public int getDimension() {
+            return dimension;
+        }
+
+        /**
+         * Returns a copy of the embedding. Prefer {@link #cosineSimilarity(double[], double)},
+         * which reads the slab in place.
+         *
+         * @return the embedding vector
+         */
         public double[] getEmbedding() {
-            return embedding.clone();
+            double[] embedding = new double[dimension];
+            for (int i = 0; i < dimension; i++) {
+                embedding[i] = slab[offset + i];
+            }
+            return embedding;
+        }
+
+        /**
+         * Computes the cosine similarity between the given query and this embedding.
+         *
+         * @param query     the query embedding, of the same dimension as this embedding
+         * @param queryNorm the Euclidean norm of the query embedding
+         * @return cosine similarity score between -1 and 1, or 0 if either vector is zero
+         */
+        public double cosineSimilarity(double[] query, double queryNorm) {
+            if (norm == 0.0 || queryNorm == 0.0) {
+                return 0.0;
+            }
+            double dot = 0.0;
+            for (int i = 0; i < dimension; i++) {
+                dot += query[i] * slab[offset + i];
+            }
+            return dot / (queryNorm * norm);
         }
 
         public long getLastAccessed() {
             return lastAccessed;
         }
 
-        void touch() {
-            this.lastAccessed = System.currentTimeMillis();
+        void touch(long now) {
+            if (now - lastAccessed >= SemanticToolFilteringConstants.ACCESS_TIME_GRANULARITY_MILLIS) {
+                lastAccessed = now;
+            }
+        }
+
+        /**
+         * Copies the embedding into another slab and returns a view over the copy.
+         */
+        EmbeddingEntry copyTo(float[] target, int targetOffset) {
+            System.arraycopy(slab, offset, target, targetOffset, dimension);
+            EmbeddingEntry copy = new EmbeddingEntry(name, target, targetOffset, dimension, norm);
+            copy.lastAccessed = lastAccessed;
+            return copy;
         }
     }
 
@@ -92,20 +170,23 @@ public class EmbeddingCache {
      * Represents the cache for a single API, containing tool embeddings.
      */
     private static class APICache {
-        private final Map<String, EmbeddingEntry> tools = new LinkedHashMap<>();
-        private long lastAccessed;
+        private final ToolEmbeddingStore tools = new ToolEmbeddingStore();
+        private volatile long lastAccessed;
 
         APICache() {
             this.lastAccessed = System.currentTimeMillis();
         }
 
-        void touch() {
-            this.lastAccessed = System.currentTimeMillis();
+        void touch(long now) {
+            if (now - lastAccessed >= SemanticToolFilteringConstants.ACCESS_TIME_GRANULARITY_MILLIS) {
+                lastAccessed = now;
+            }
         }
     }
 
     /**
-     * Represents a tool entry to be bulk-added to the cache.
+     * Represents a tool entry to be bulk-added to the cache. The embedding is converted into the
+     * cache's float32 representation when it is added, so it is not copied here.
      */
     public static class ToolEntry {
         private final String hashKey;
@@ -115,7 +196,7 @@ public class EmbeddingCache {
         public ToolEntry(String hashKey, String name, double[] embedding) {
             this.hashKey = hashKey;
             this.name = name;
-            this.embedding = embedding != null ? embedding.clone() : new double[0];
+            this.embedding = embedding != null ? embedding : new double[0];
         }
 
         public String getHashKey() {
@@ -138,6 +219,7 @@ public class EmbeddingCache {
         private final List<String> added = new ArrayList<>();
         private final List<String> skipped = new ArrayList<>();
         private final List<String> cached = new ArrayList<>();
+        private final List<String> evicted = new ArrayList<>();
 
         public List<String> getAdded() {
             return added;
@@ -150,11 +232,17 @@ public class EmbeddingCache {
         public List<String> getCached() {
             return cached;
         }
+
+        public List<String> getEvicted() {
+            return evicted;
+        }
     }
 
     private EmbeddingCache() {
         this.maxAPIs = SemanticToolFilteringConstants.DEFAULT_MAX_APIS;
         this.maxToolsPerAPI = SemanticToolFilteringConstants.DEFAULT_MAX_TOOLS_PER_API;
+        this.maxBytes = Math.max(0, Long.getLong(SemanticToolFilteringConstants.EMBEDDING_CACHE_MAX_BYTES_PROPERTY,
+                SemanticToolFilteringConstants.DEFAULT_EMBEDDING_CACHE_MAX_BYTES));
     }
 
     /**
@@ -166,7 +254,9 @@ public class EmbeddingCache {
         if (instance == null) {
             synchronized (LOCK) {
                 if (instance == null) {
-                    instance = new EmbeddingCache();
+                    EmbeddingCache created = new EmbeddingCache();
+                    registerMBean(created);
+                    instance = created;
                 }
             }
         }
@@ -180,16 +270,25 @@ public class EmbeddingCache {
      * @param maxToolsPerAPI maximum number of tools per API
      */
     public void setCacheLimits(int maxAPIs, int maxToolsPerAPI) {
-        rwLock.writeLock().lock();
-        try {
+        synchronized (writeLock) {
             if (maxAPIs > 0) {
                 this.maxAPIs = maxAPIs;
             }
             if (maxToolsPerAPI > 0) {
                 this.maxToolsPerAPI = maxToolsPerAPI;
             }
-        } finally {
-            rwLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the byte budget of the cache. A positive budget replaces the count limits; 0 restores them.
+     * A lower budget takes effect as new tools are added.
+     *
+     * @param maxBytes the maximum number of bytes held by cached tools, or 0
+     */
+    public void setMaxBytes(long maxBytes) {
+        synchronized (writeLock) {
+            this.maxBytes = Math.max(0, maxBytes);
         }
     }
 
@@ -199,12 +298,7 @@ public class EmbeddingCache {
      * @return an int array with [maxAPIs, maxToolsPerAPI]
      */
     public int[] getCacheLimits() {
-        rwLock.readLock().lock();
-        try {
-            return new int[]{maxAPIs, maxToolsPerAPI};
-        } finally {
-            rwLock.readLock().unlock();
-        }
+        return new int[]{maxAPIs, maxToolsPerAPI};
     }
 
     /**
@@ -214,48 +308,43 @@ public class EmbeddingCache {
      * @param apiId the API identifier
      */
     public void addAPICache(String apiId) {
-        rwLock.writeLock().lock();
-        try {
+        if (cache.containsKey(apiId)) {
+            return;
+        }
+        synchronized (writeLock) {
             if (!cache.containsKey(apiId)) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Adding new API cache: apiId=" + apiId
                             + ", currentSize=" + cache.size() + ", maxAPIs=" + maxAPIs);
                 }
-                evictLRUAPIIfNeeded();
-                cache.put(apiId, new APICache());
+                createAPICache(apiId);
             }
-        } finally {
-            rwLock.writeLock().unlock();
         }
     }
 
     /**
-     * Retrieves an embedding entry for a specific API and hash key.
-     * Updates access timestamps on hit.
+     * Retrieves an embedding entry for a specific API and hash key without taking a lock.
+     * Updates access timestamps on hit. The returned entry is a view over the cached embedding.
      *
      * @param apiId   the API identifier
      * @param hashKey the SHA-256 hash of the tool description
      * @return the embedding entry, or null if not found
      */
     public EmbeddingEntry getEntry(String apiId, String hashKey) {
-        rwLock.writeLock().lock();
-        try {
-            APICache apiCache = cache.get(apiId);
-            if (apiCache != null) {
-                EmbeddingEntry entry = apiCache.tools.get(hashKey);
-                if (entry != null) {
-                    apiCache.touch();
-                    entry.touch();
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Cache hit: apiId=" + apiId + ", toolName=" + entry.getName());
-                    }
-                    return new EmbeddingEntry(entry.getName(), entry.getEmbedding());
+        APICache apiCache = cache.get(apiId);
+        if (apiCache != null) {
+            EmbeddingEntry entry = apiCache.tools.get(hashKey);
+            if (entry != null) {
+                long now = System.currentTimeMillis();
+                apiCache.touch(now);
+                entry.touch(now);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Cache hit: apiId=" + apiId + ", toolName=" + entry.getName());
                 }
+                return entry;
             }
-            return null;
-        } finally {
-            rwLock.writeLock().unlock();
         }
+        return null;
     }
 
     /**
@@ -265,30 +354,25 @@ public class EmbeddingCache {
      * @return the number of cached tools, or 0 if API not found
      */
     public int getAPICacheSize(String apiId) {
-        rwLock.readLock().lock();
-        try {
-            APICache apiCache = cache.get(apiId);
-            if (apiCache != null) {
-                return apiCache.tools.size();
-            }
-            return 0;
-        } finally {
-            rwLock.readLock().unlock();
+        APICache apiCache = cache.get(apiId);
+        if (apiCache != null) {
+            return apiCache.tools.size();
         }
+        return 0;
     }
 
     /**
      * Adds multiple tools to the cache for a specific API in an optimized way.
-     * First checks which tools are already cached, then only adds new tools up to the cache limit.
-     * This prevents wasteful evictions.
+     * First checks which tools are already cached, then adds the new tools, evicting the least
+     * recently used tools of the API once it is at capacity. New tools beyond the capacity of the API
+     * itself are skipped.
      *
      * @param apiId the API identifier
      * @param tools the list of tool entries to add
-     * @return the result indicating which tools were added, skipped, or already cached
+     * @return the result indicating which tools were added, skipped, already cached, or evicted
      */
     public BulkAddResult bulkAddTools(String apiId, List<ToolEntry> tools) {
-        rwLock.writeLock().lock();
-        try {
+        synchronized (writeLock) {
             BulkAddResult result = new BulkAddResult();
 
             if (tools == null || tools.isEmpty()) {
@@ -302,12 +386,12 @@ public class EmbeddingCache {
 
             // Ensure API cache exists
             if (!cache.containsKey(apiId)) {
-                evictLRUAPIIfNeeded();
-                cache.put(apiId, new APICache());
+                createAPICache(apiId);
             }
 
             APICache apiCache = cache.get(apiId);
-            apiCache.touch();
+            long now = System.currentTimeMillis();
+            apiCache.touch(now);
 
             // Separate into already-cached and new tools
             List<ToolEntry> newTools = new ArrayList<>();
@@ -316,45 +400,52 @@ public class EmbeddingCache {
                 EmbeddingEntry existing = apiCache.tools.get(tool.getHashKey());
                 if (existing != null) {
                     // Already cached - update timestamp
-                    existing.touch();
+                    existing.touch(now);
                     result.getCached().add(tool.getName());
                 } else {
                     // Remove any existing entry with the same name but different hash
-                    String keyToRemove = null;
-                    for (Map.Entry<String, EmbeddingEntry> entry : apiCache.tools.entrySet()) {
-                        if (entry.getValue().getName().equals(tool.getName())) {
-                            keyToRemove = entry.getKey();
-                            break;
-                        }
-                    }
-                    if (keyToRemove != null) {
-                        apiCache.tools.remove(keyToRemove);
-                    }
+                    long before = apiCache.tools.getBytes();
+                    apiCache.tools.removeByName(tool.getName());
+                    usedBytes += apiCache.tools.getBytes() - before;
                     newTools.add(tool);
                 }
             }
 
-            // Calculate available slots
-            int availableSlots = maxToolsPerAPI - apiCache.tools.size();
-            if (availableSlots < 0) {
-                availableSlots = 0;
-            }
-
-            // Add new tools that fit
-            int toolsToAddCount = Math.min(newTools.size(), availableSlots);
+            // Add new tools, making room by evicting the least recently used ones
+            long budget = maxBytes;
+            int toolsToAddCount = budget > 0 ? newTools.size() : Math.min(newTools.size(), maxToolsPerAPI);
+            long addedBytes = 0;
 
             for (int i = 0; i < toolsToAddCount; i++) {
                 ToolEntry tool = newTools.get(i);
-                apiCache.tools.put(tool.getHashKey(), new EmbeddingEntry(tool.getName(), tool.getEmbedding()));
+                if (budget > 0) {
+                    long toolBytes = ToolEmbeddingStore.entryBytes(tool.embedding.length, tool.getHashKey(),
+                            tool.getName());
+                    // Never evict tools added by this same call
+                    if (addedBytes + toolBytes > budget
+                            || !makeRoom(apiId, apiCache, toolBytes, budget, result)) {
+                        skipTool(tool, result);
+                        continue;
+                    }
+                    addedBytes += toolBytes;
+                } else {
+                    while (apiCache.tools.size() >= maxToolsPerAPI) {
+                        EmbeddingEntry evicted = evictTool(apiCache);
+                        if (evicted == null) {
+                            break;
+                        }
+                        result.getEvicted().add(evicted.getName());
+                    }
+                }
+                long before = apiCache.tools.getBytes();
+                apiCache.tools.put(tool.getHashKey(), tool.getName(), tool.embedding);
+                usedBytes += apiCache.tools.getBytes() - before;
                 result.getAdded().add(tool.getName());
             }
 
             // Skip tools that don't fit
             for (int i = toolsToAddCount; i < newTools.size(); i++) {
-                result.getSkipped().add(newTools.get(i).getName());
-                if (logger.isDebugEnabled()) {
-                    logger.debug("BulkAddTools: skipping tool due to cache limit: " + newTools.get(i).getName());
-                }
+                skipTool(newTools.get(i), result);
             }
 
             if (logger.isDebugEnabled()) {
@@ -362,12 +453,12 @@ public class EmbeddingCache {
                         + ", added=" + result.getAdded().size()
                         + ", skipped=" + result.getSkipped().size()
                         + ", cached=" + result.getCached().size()
-                        + ", totalInCache=" + apiCache.tools.size());
+                        + ", evicted=" + result.getEvicted().size()
+                        + ", totalInCache=" + apiCache.tools.size()
+                        + ", usedBytes=" + usedBytes);
             }
 
             return result;
-        } finally {
-            rwLock.writeLock().unlock();
         }
     }
 
@@ -396,25 +487,188 @@ public class EmbeddingCache {
     }
 
     /**
-     * Evicts the least recently used API from the cache if at capacity.
-     * Must be called with write lock held.
+     * Creates the cache of an API, evicting the LRU API first if at capacity.
+     * Must be called while holding the write lock.
+     */
+    private void createAPICache(String apiId) {
+        evictLRUAPIIfNeeded();
+        APICache apiCache = new APICache();
+        cache.put(apiId, apiCache);
+        apiQueue.put(apiId, apiCache.lastAccessed);
+    }
+
+    /**
+     * Evicts the least recently used API from the cache if at capacity. APIs are not counted against
+     * a limit when a byte budget is set. Must be called while holding the write lock.
      */
     private void evictLRUAPIIfNeeded() {
-        if (cache.size() >= maxAPIs) {
-            String lruApiId = null;
-            long oldestTime = Long.MAX_VALUE;
-            for (Map.Entry<String, APICache> entry : cache.entrySet()) {
-                if (entry.getValue().lastAccessed < oldestTime) {
-                    oldestTime = entry.getValue().lastAccessed;
-                    lruApiId = entry.getKey();
+        while (maxBytes <= 0 && cache.size() >= maxAPIs) {
+            String lruApiId = peekLRUAPI(null);
+            if (lruApiId == null) {
+                break;
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Evicting LRU API: " + lruApiId);
+            }
+            removeAPICache(lruApiId);
+        }
+    }
+
+    /**
+     * Returns the least recently used API, moving APIs accessed since they were queued to the back of
+     * the queue on the way. Must be called while holding the write lock.
+     *
+     * @param excludedApiId an API that must not be returned, or null
+     * @return the LRU API ID, or null if there is no API other than the excluded one
+     */
+    private String peekLRUAPI(String excludedApiId) {
+        // Two passes suffice: after the first one, every API is queued with its latest access time
+        int remaining = 2 * apiQueue.size();
+        while (remaining-- > 0) {
+            Iterator<Map.Entry<String, Long>> iterator = apiQueue.entrySet().iterator();
+            Map.Entry<String, Long> eldest = iterator.next();
+            String apiId = eldest.getKey();
+            APICache apiCache = cache.get(apiId);
+            if (apiCache == null) {
+                iterator.remove();
+                continue;
+            }
+            if (!apiId.equals(excludedApiId) && apiCache.lastAccessed <= eldest.getValue()) {
+                return apiId;
+            }
+            iterator.remove();
+            apiQueue.put(apiId, apiCache.lastAccessed);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the cache of an API. Must be called while holding the write lock.
+     */
+    private void removeAPICache(String apiId) {
+        apiQueue.remove(apiId);
+        APICache removed = cache.remove(apiId);
+        if (removed != null) {
+            usedBytes -= removed.tools.getBytes();
+            evictedTools += removed.tools.size();
+        }
+    }
+
+    /**
+     * Evicts the LRU tool of an API. Must be called while holding the write lock.
+     *
+     * @return the evicted entry, or null if the API has no tools
+     */
+    private EmbeddingEntry evictTool(APICache apiCache) {
+        long before = apiCache.tools.getBytes();
+        EmbeddingEntry evicted = apiCache.tools.evictLeastRecentlyUsed();
+        if (evicted != null) {
+            usedBytes += apiCache.tools.getBytes() - before;
+            evictedTools++;
+        }
+        return evicted;
+    }
+
+    /**
+     * Evicts tools until the given number of bytes fits into the budget. Tools of the least recently
+     * used other API go first; the API being added to only gives up its own LRU tools once no other
+     * API holds any. Must be called while holding the write lock.
+     *
+     * @return {@code true} if the bytes fit, {@code false} if the budget cannot accommodate them
+     */
+    private boolean makeRoom(String apiId, APICache apiCache, long bytes, long budget, BulkAddResult result) {
+        while (usedBytes + bytes > budget) {
+            String victimId = peekLRUAPI(apiId);
+            if (victimId == null) {
+                EmbeddingEntry evicted = evictTool(apiCache);
+                if (evicted == null) {
+                    return false;
                 }
+                result.getEvicted().add(evicted.getName());
+                continue;
             }
-            if (lruApiId != null) {
+            APICache victim = cache.get(victimId);
+            if (evictTool(victim) == null || victim.tools.size() == 0) {
                 if (logger.isDebugEnabled()) {
-                    logger.debug("Evicting LRU API: " + lruApiId);
+                    logger.debug("Evicting LRU API to stay within the byte budget: " + victimId);
                 }
-                cache.remove(lruApiId);
+                removeAPICache(victimId);
             }
         }
+        return true;
+    }
+
+    private static void skipTool(ToolEntry tool, BulkAddResult result) {
+        result.getSkipped().add(tool.getName());
+        if (logger.isDebugEnabled()) {
+            logger.debug("BulkAddTools: skipping tool due to cache limit: " + tool.getName());
+        }
+    }
+
+    private static void registerMBean(EmbeddingCache embeddingCache) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(SemanticToolFilteringConstants.EMBEDDING_CACHE_MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                // Left behind by an earlier copy of this class, for example before the bundle was updated
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(embeddingCache, name);
+        } catch (JMException | RuntimeException e) {
+            logger.warn("Unable to register tool embedding cache MBean", e);
+        }
+    }
+
+    // ---------- EmbeddingCacheMBean ----------
+
+    @Override
+    public int getApiCount() {
+        return cache.size();
+    }
+
+    @Override
+    public int getToolCount() {
+        int toolCount = 0;
+        for (APICache apiCache : cache.values()) {
+            toolCount += apiCache.tools.size();
+        }
+        return toolCount;
+    }
+
+    @Override
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the used share of the byte budget, or of the total tool capacity when no budget is set.
+     */
+    @Override
+    public double getOccupancy() {
+        long budget = maxBytes;
+        if (budget > 0) {
+            return (double) usedBytes / budget;
+        }
+        return (double) getToolCount() / ((long) maxAPIs * maxToolsPerAPI);
+    }
+
+    @Override
+    public int getMaxAPIs() {
+        return maxAPIs;
+    }
+
+    @Override
+    public int getMaxToolsPerAPI() {
+        return maxToolsPerAPI;
+    }
+
+    @Override
+    public long getEvictedTools() {
+        return evictedTools;
     }
 }
@@ -39,7 +39,9 @@ import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -82,6 +84,7 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
     private String toolsJSONPath = SemanticToolFilteringConstants.DEFAULT_TOOLS_JSON_PATH;
     private boolean userQueryIsJson = SemanticToolFilteringConstants.DEFAULT_USER_QUERY_IS_JSON;
     private boolean toolsIsJson = SemanticToolFilteringConstants.DEFAULT_TOOLS_IS_JSON;
+    private int embeddingParallelism = SemanticToolFilteringConstants.DEFAULT_EMBEDDING_PARALLELISM;
 
     private EmbeddingProviderService embeddingProvider;
     private ToolsPathSpec parsedToolsPathSpec;
@@ -124,6 +127,12 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
                     + ". Must be between 0.0 and 1.0.");
         }
 
+        // Validate embeddingParallelism
+        if (embeddingParallelism <= 0) {
+            log.error("Invalid embeddingParallelism: " + embeddingParallelism
+                    + ". Must be a positive integer.");
+        }
+
         // Validate queryJSONPath
         if (userQueryIsJson && !isValidSimpleJSONPath(queryJSONPath)) {
             log.error("Invalid queryJSONPath: " + queryJSONPath
@@ -150,7 +159,8 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
             logger.debug("SemanticToolFiltering initialized: selectionMode=" + selectionMode
                     + ", limit=" + limit + ", threshold=" + threshold
                     + ", queryJSONPath=" + queryJSONPath + ", toolsJSONPath=" + toolsJSONPath
-                    + ", userQueryIsJson=" + userQueryIsJson + ", toolsIsJson=" + toolsIsJson);
+                    + ", userQueryIsJson=" + userQueryIsJson + ", toolsIsJson=" + toolsIsJson
+                    + ", embeddingParallelism=" + embeddingParallelism);
         }
     }
 
@@ -246,68 +256,9 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
             return true;
         }
 
-        // Generate embedding for user query
-        double[] queryEmbedding = embeddingProvider.getEmbedding(userQuery);
-
-        // Get embedding cache
-        EmbeddingCache embeddingCache = EmbeddingCache.getInstance();
-        String apiId = (String) messageContext.getProperty(SemanticToolFilteringConstants.API_UUID);
-        if (apiId == null) {
-            apiId = "unknown";
-        }
-        embeddingCache.addAPICache(apiId);
-
         // Process tools and compute similarity
-        List<ToolWithScore> toolsWithScores = new ArrayList<>();
-        List<EmbeddingCache.ToolEntry> toolEntriesToCache = new ArrayList<>();
-
-        int[] cacheLimits = embeddingCache.getCacheLimits();
-        int maxToolsPerAPI = cacheLimits[1];
-        int currentCachedCount = embeddingCache.getAPICacheSize(apiId);
-        int availableSlots = Math.max(0, maxToolsPerAPI - currentCachedCount);
-        int newToolIndex = 0;
-
         List<JsonToolEntry> toolEntries = extractJsonToolEntries(toolsArray, toolsPathSpec);
-        for (JsonToolEntry toolEntry : toolEntries) {
-            JsonObject toolObj = toolEntry.getInspect();
-            ToolMetadata toolMetadata = extractToolMetadata(toolObj);
-            String toolName = toolMetadata.getName();
-            String toolDesc = buildToolEmbeddingText(toolMetadata);
-            if (toolDesc == null || toolDesc.isEmpty()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("No description found for tool - skipping.");
-                }
-                continue;
-            }
-            String cacheKey = getCacheKey(toolDesc);
-
-            // Try cache first
-            double[] toolEmbedding;
-            EmbeddingCache.EmbeddingEntry cachedEntry = embeddingCache.getEntry(apiId, cacheKey);
-            if (cachedEntry != null) {
-                toolEmbedding = cachedEntry.getEmbedding();
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Cache hit for tool: " + toolName);
-                }
-            } else {
-                // Generate embedding
-                toolEmbedding = embeddingProvider.getEmbedding(toolDesc);
-
-                // Only cache if slots are available
-                if (newToolIndex < availableSlots) {
-                    toolEntriesToCache.add(new EmbeddingCache.ToolEntry(cacheKey, toolName, toolEmbedding));
-                }
-                newToolIndex++;
-            }
-
-            double similarity = calculateCosineSimilarity(queryEmbedding, toolEmbedding);
-            toolsWithScores.add(new ToolWithScore(toolEntry.getOriginal(), similarity));
-        }
-
-        // Bulk add to cache
-        if (!toolEntriesToCache.isEmpty()) {
-            embeddingCache.bulkAddTools(apiId, toolEntriesToCache);
-        }
+        List<ToolWithScore> toolsWithScores = scoreJsonTools(messageContext, userQuery, toolEntries);
 
         if (toolsWithScores.isEmpty()) {
             if (logger.isDebugEnabled()) {
@@ -369,51 +320,8 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
             return true;
         }
 
-        // Generate embedding for user query
-        double[] queryEmbedding = embeddingProvider.getEmbedding(userQuery);
-
-        // Get embedding cache
-        EmbeddingCache embeddingCache = EmbeddingCache.getInstance();
-        String apiId = (String) messageContext.getProperty(SemanticToolFilteringConstants.API_UUID);
-        if (apiId == null) {
-            apiId = "unknown";
-        }
-        embeddingCache.addAPICache(apiId);
-
         // Process tools and compute similarity
-        List<TextToolWithScore> toolsWithScores = new ArrayList<>();
-        List<EmbeddingCache.ToolEntry> toolEntriesToCache = new ArrayList<>();
-
-        int[] cacheLimits = embeddingCache.getCacheLimits();
-        int maxToolsPerAPI = cacheLimits[1];
-        int currentCachedCount = embeddingCache.getAPICacheSize(apiId);
-        int availableSlots = Math.max(0, maxToolsPerAPI - currentCachedCount);
-        int newToolIndex = 0;
-
-        for (TextTool tool : textTools) {
-            String toolText = tool.getName() + ": " + tool.getDescription();
-            String cacheKey = getCacheKey(toolText);
-
-            double[] toolEmbedding;
-            EmbeddingCache.EmbeddingEntry cachedEntry = embeddingCache.getEntry(apiId, cacheKey);
-            if (cachedEntry != null) {
-                toolEmbedding = cachedEntry.getEmbedding();
-            } else {
-                toolEmbedding = embeddingProvider.getEmbedding(toolText);
-                if (newToolIndex < availableSlots) {
-                    toolEntriesToCache.add(new EmbeddingCache.ToolEntry(cacheKey, tool.getName(), toolEmbedding));
-                }
-                newToolIndex++;
-            }
-
-            double similarity = calculateCosineSimilarity(queryEmbedding, toolEmbedding);
-            toolsWithScores.add(new TextToolWithScore(tool, similarity));
-        }
-
-        // Bulk add to cache
-        if (!toolEntriesToCache.isEmpty()) {
-            embeddingCache.bulkAddTools(apiId, toolEntriesToCache);
-        }
+        List<TextToolWithScore> toolsWithScores = scoreTextTools(messageContext, userQuery, textTools);
 
         if (toolsWithScores.isEmpty()) {
             return true;
@@ -479,17 +387,6 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
             return true;
         }
 
-        // Generate embedding for user query
-        double[] queryEmbedding = embeddingProvider.getEmbedding(userQuery);
-
-        // Get embedding cache
-        EmbeddingCache embeddingCache = EmbeddingCache.getInstance();
-        String apiId = (String) messageContext.getProperty(SemanticToolFilteringConstants.API_UUID);
-        if (apiId == null) {
-            apiId = "unknown";
-        }
-        embeddingCache.addAPICache(apiId);
-
         if (toolsIsJson) {
             // Tools in JSON format - parse with Gson
             JsonObject requestBody = JsonParser.parseString(content).getAsJsonObject();
@@ -506,43 +403,8 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
                 return true;
             }
 
-            List<ToolWithScore> toolsWithScores = new ArrayList<>();
-            List<EmbeddingCache.ToolEntry> toolEntriesToCache = new ArrayList<>();
-
-            int[] cacheLimits = embeddingCache.getCacheLimits();
-            int availableSlots = Math.max(0, cacheLimits[1] - embeddingCache.getAPICacheSize(apiId));
-            int newToolIndex = 0;
-
             List<JsonToolEntry> toolEntries = extractJsonToolEntries(toolsArray, toolsPathSpec);
-            for (JsonToolEntry toolEntry : toolEntries) {
-                JsonObject toolObj = toolEntry.getInspect();
-                ToolMetadata toolMetadata = extractToolMetadata(toolObj);
-                String toolName = toolMetadata.getName();
-                String toolDesc = buildToolEmbeddingText(toolMetadata);
-                if (toolDesc == null || toolDesc.isEmpty()) {
-                    continue;
-                }
-                String cacheKey = getCacheKey(toolDesc);
-
-                double[] toolEmbedding;
-                EmbeddingCache.EmbeddingEntry cachedEntry = embeddingCache.getEntry(apiId, cacheKey);
-                if (cachedEntry != null) {
-                    toolEmbedding = cachedEntry.getEmbedding();
-                } else {
-                    toolEmbedding = embeddingProvider.getEmbedding(toolDesc);
-                    if (newToolIndex < availableSlots) {
-                        toolEntriesToCache.add(new EmbeddingCache.ToolEntry(cacheKey, toolName, toolEmbedding));
-                    }
-                    newToolIndex++;
-                }
-
-                double similarity = calculateCosineSimilarity(queryEmbedding, toolEmbedding);
-                toolsWithScores.add(new ToolWithScore(toolEntry.getOriginal(), similarity));
-            }
-
-            if (!toolEntriesToCache.isEmpty()) {
-                embeddingCache.bulkAddTools(apiId, toolEntriesToCache);
-            }
+            List<ToolWithScore> toolsWithScores = scoreJsonTools(messageContext, userQuery, toolEntries);
 
             if (toolsWithScores.isEmpty()) {
                 return true;
@@ -571,36 +433,7 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
                 return true;
             }
 
-            List<TextToolWithScore> toolsWithScores = new ArrayList<>();
-            List<EmbeddingCache.ToolEntry> toolEntriesToCache = new ArrayList<>();
-
-            int[] cacheLimits = embeddingCache.getCacheLimits();
-            int availableSlots = Math.max(0, cacheLimits[1] - embeddingCache.getAPICacheSize(apiId));
-            int newToolIndex = 0;
-
-            for (TextTool tool : textTools) {
-                String toolText = tool.getName() + ": " + tool.getDescription();
-                String cacheKey = getCacheKey(toolText);
-
-                double[] toolEmbedding;
-                EmbeddingCache.EmbeddingEntry cachedEntry = embeddingCache.getEntry(apiId, cacheKey);
-                if (cachedEntry != null) {
-                    toolEmbedding = cachedEntry.getEmbedding();
-                } else {
-                    toolEmbedding = embeddingProvider.getEmbedding(toolText);
-                    if (newToolIndex < availableSlots) {
-                        toolEntriesToCache.add(new EmbeddingCache.ToolEntry(cacheKey, tool.getName(), toolEmbedding));
-                    }
-                    newToolIndex++;
-                }
-
-                double similarity = calculateCosineSimilarity(queryEmbedding, toolEmbedding);
-                toolsWithScores.add(new TextToolWithScore(tool, similarity));
-            }
-
-            if (!toolEntriesToCache.isEmpty()) {
-                embeddingCache.bulkAddTools(apiId, toolEntriesToCache);
-            }
+            List<TextToolWithScore> toolsWithScores = scoreTextTools(messageContext, userQuery, textTools);
 
             if (toolsWithScores.isEmpty()) {
                 return true;
@@ -888,6 +721,139 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
         return null;
     }
 
+    // ---------- Scoring ----------
+
+    /**
+     * Scores JSON tools against the user query. Tools with neither a name nor a description are skipped.
+     */
+    private List<ToolWithScore> scoreJsonTools(MessageContext messageContext, String userQuery,
+                                               List<JsonToolEntry> toolEntries) throws APIManagementException {
+        List<JsonToolEntry> describedTools = new ArrayList<>();
+        List<String> toolNames = new ArrayList<>();
+        List<String> toolTexts = new ArrayList<>();
+        for (JsonToolEntry toolEntry : toolEntries) {
+            ToolMetadata toolMetadata = extractToolMetadata(toolEntry.getInspect());
+            String toolDesc = buildToolEmbeddingText(toolMetadata);
+            if (toolDesc == null || toolDesc.isEmpty()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("No description found for tool - skipping.");
+                }
+                continue;
+            }
+            describedTools.add(toolEntry);
+            toolNames.add(toolMetadata.getName());
+            toolTexts.add(toolDesc);
+        }
+
+        double[] similarities = scoreTools(messageContext, userQuery, toolNames, toolTexts);
+        List<ToolWithScore> toolsWithScores = new ArrayList<>(describedTools.size());
+        for (int i = 0; i < describedTools.size(); i++) {
+            toolsWithScores.add(new ToolWithScore(describedTools.get(i).getOriginal(), similarities[i]));
+        }
+        return toolsWithScores;
+    }
+
+    /**
+     * Scores text tools against the user query.
+     */
+    private List<TextToolWithScore> scoreTextTools(MessageContext messageContext, String userQuery,
+                                                   List<TextTool> textTools) throws APIManagementException {
+        List<String> toolNames = new ArrayList<>(textTools.size());
+        List<String> toolTexts = new ArrayList<>(textTools.size());
+        for (TextTool tool : textTools) {
+            toolNames.add(tool.getName());
+            toolTexts.add(tool.getName() + ": " + tool.getDescription());
+        }
+
+        double[] similarities = scoreTools(messageContext, userQuery, toolNames, toolTexts);
+        List<TextToolWithScore> toolsWithScores = new ArrayList<>(textTools.size());
+        for (int i = 0; i < textTools.size(); i++) {
+            toolsWithScores.add(new TextToolWithScore(textTools.get(i), similarities[i]));
+        }
+        return toolsWithScores;
+    }
+
+    /**
+     * Computes the similarity between the user query and each tool text. Cached tool embeddings are
+     * read in place. The uncached tools are embedded concurrently, up to {@code embeddingParallelism}
+     * at a time, while the query is embedded on the calling thread, and are then added to the cache.
+     *
+     * @param messageContext the message context
+     * @param userQuery      the user query
+     * @param toolNames      the tool names
+     * @param toolTexts      the texts to embed for each tool
+     * @return the similarity of each tool, in the order of the given texts
+     * @throws APIManagementException if the query or a tool text cannot be embedded
+     */
+    private double[] scoreTools(MessageContext messageContext, String userQuery, List<String> toolNames,
+                                List<String> toolTexts) throws APIManagementException {
+        int toolCount = toolTexts.size();
+        if (toolCount == 0) {
+            return new double[0];
+        }
+
+        EmbeddingCache embeddingCache = EmbeddingCache.getInstance();
+        String apiId = (String) messageContext.getProperty(SemanticToolFilteringConstants.API_UUID);
+        if (apiId == null) {
+            apiId = "unknown";
+        }
+        embeddingCache.addAPICache(apiId);
+
+        // Look up cached embeddings and collect the distinct tool texts that still need embedding
+        String[] cacheKeys = new String[toolCount];
+        EmbeddingCache.EmbeddingEntry[] cachedEntries = new EmbeddingCache.EmbeddingEntry[toolCount];
+        Map<String, Integer> missIndexByKey = new LinkedHashMap<>();
+        List<String> missTexts = new ArrayList<>();
+        for (int i = 0; i < toolCount; i++) {
+            cacheKeys[i] = getCacheKey(toolTexts.get(i));
+            cachedEntries[i] = embeddingCache.getEntry(apiId, cacheKeys[i]);
+            if (cachedEntries[i] != null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Cache hit for tool: " + toolNames.get(i));
+                }
+            } else if (!missIndexByKey.containsKey(cacheKeys[i])) {
+                missIndexByKey.put(cacheKeys[i], missTexts.size());
+                missTexts.add(toolTexts.get(i));
+            }
+        }
+
+        // Embed the uncached tools in the background while the query is embedded on this thread
+        ToolEmbedder.Batch batch = ToolEmbedder.submit(embeddingProvider, missTexts, embeddingParallelism);
+        double[] queryEmbedding;
+        try {
+            queryEmbedding = EmbeddingMemo.getInstance().getEmbedding(embeddingProvider, userQuery,
+                    messageContext);
+        } catch (APIManagementException | RuntimeException e) {
+            batch.cancel();
+            throw e;
+        }
+        List<double[]> missEmbeddings = batch.join();
+        double queryNorm = vectorNorm(queryEmbedding);
+
+        double[] similarities = new double[toolCount];
+        List<EmbeddingCache.ToolEntry> toolEntriesToCache = new ArrayList<>();
+        Set<String> keysToCache = new HashSet<>();
+        for (int i = 0; i < toolCount; i++) {
+            if (cachedEntries[i] != null) {
+                similarities[i] = calculateCosineSimilarity(queryEmbedding, queryNorm, cachedEntries[i]);
+                continue;
+            }
+            int missIndex = missIndexByKey.get(cacheKeys[i]);
+            double[] toolEmbedding = missEmbeddings.get(missIndex);
+            similarities[i] = calculateCosineSimilarity(queryEmbedding, toolEmbedding);
+            // Cache each distinct text once; the cache evicts the least recently used tools when full
+            if (toolEmbedding != null && keysToCache.add(cacheKeys[i])) {
+                toolEntriesToCache.add(new EmbeddingCache.ToolEntry(cacheKeys[i], toolNames.get(i), toolEmbedding));
+            }
+        }
+
+        // Bulk add to cache
+        if (!toolEntriesToCache.isEmpty()) {
+            embeddingCache.bulkAddTools(apiId, toolEntriesToCache);
+        }
+        return similarities;
+    }
+
     /**
      * Generates a cache key that includes the embedding provider info to avoid
      * stale/incompatible embeddings if the provider changes.
@@ -938,6 +904,43 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
         return dot / (Math.sqrt(normA) * Math.sqrt(normB));
     }
 
+    /**
+     * Calculates cosine similarity between a query embedding and a cached tool embedding,
+     * reading the cached embedding in place.
+     *
+     * @param query     the query embedding
+     * @param queryNorm the Euclidean norm of the query embedding
+     * @param entry     the cached tool embedding
+     * @return cosine similarity score between -1 and 1
+     */
+    private double calculateCosineSimilarity(double[] query, double queryNorm, EmbeddingCache.EmbeddingEntry entry) {
+        if (query == null || query.length == 0 || entry.getDimension() == 0) {
+            return 0.0;
+        }
+        if (query.length != entry.getDimension()) {
+            logger.warn("Embedding dimensions do not match: " + query.length + " vs " + entry.getDimension());
+            return 0.0;
+        }
+        return entry.cosineSimilarity(query, queryNorm);
+    }
+
+    /**
+     * Calculates the Euclidean norm of an embedding vector.
+     *
+     * @param vector the embedding vector, may be null
+     * @return the norm, or 0 for a null vector
+     */
+    private static double vectorNorm(double[] vector) {
+        if (vector == null) {
+            return 0.0;
+        }
+        double sumSquares = 0.0;
+        for (double value : vector) {
+            sumSquares += value * value;
+        }
+        return Math.sqrt(sumSquares);
+    }
+
     /**
      * Filters tools based on the configured selection mode.
      *
@@ -1392,4 +1395,12 @@ public class SemanticToolFiltering extends AbstractMediator implements ManagedLi
     public void setToolsIsJson(boolean toolsIsJson) {
         this.toolsIsJson = toolsIsJson;
     }
+
+    public int getEmbeddingParallelism() {
+        return embeddingParallelism;
+    }
+
+    public void setEmbeddingParallelism(int embeddingParallelism) {
+        this.embeddingParallelism = embeddingParallelism;
+    }
 }
@@ -65,7 +65,30 @@ public final class SemanticToolFilteringConstants {
     // Embedding cache defaults
     public static final int DEFAULT_MAX_APIS = 25;
     public static final int DEFAULT_MAX_TOOLS_PER_API = 200;
+    public static final long ACCESS_TIME_GRANULARITY_MILLIS = 1000;
+
+    // Byte budget of the embedding cache (0 keeps the count-based limits)
+    public static final String EMBEDDING_CACHE_MAX_BYTES_PROPERTY = "apim.ai.tool.filtering.cache.max.bytes";
+    public static final long DEFAULT_EMBEDDING_CACHE_MAX_BYTES = 0;
+    public static final int EMBEDDING_ENTRY_OVERHEAD_BYTES = 176;
+    public static final int STRING_OVERHEAD_BYTES = 40;
+
+    // Concurrent embedding of uncached tools
+    public static final int DEFAULT_EMBEDDING_PARALLELISM = 8;
+    public static final int TOOL_EMBEDDING_THREADS = 32;
+    public static final int TOOL_EMBEDDING_QUEUE_SIZE = 1024;
+
+    // JMX
+    public static final String EMBEDDING_CACHE_MBEAN_NAME =
+            "org.wso2.apim.policies:type=SemanticToolFiltering,name=EmbeddingCache";
 
     // Message context property keys
     public static final String API_UUID = "API_UUID";
+
+    // Embedding memo shared by the semantic mediators
+    public static final String EMBEDDING_MEMO_SLOT = "ai.semantic.embeddingMemo";
+    public static final String EMBEDDING_MEMO_CAPACITY_PROPERTY = "apim.ai.embedding.memo.capacity";
+    public static final String EMBEDDING_MEMO_TTL_PROPERTY = "apim.ai.embedding.memo.ttl";
+    public static final int DEFAULT_EMBEDDING_MEMO_CAPACITY = 1000;
+    public static final long DEFAULT_EMBEDDING_MEMO_TTL_SECONDS = 600;
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.tool.filtering;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.api.EmbeddingProviderService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent embedding of tool descriptions that are not in the embedding cache.
+ * <p>
+ * The embedding provider only embeds one text per call, so the descriptions of a request are embedded
+ * by up to a given number of workers on a bounded pool shared by all mediators of this bundle. Workers
+ * take the next description as they finish the previous one. When the pool is saturated, the remaining
+ * workers of a request run on the calling thread.
+ */
+public final class ToolEmbedder {
+
+    private static final Log logger = LogFactory.getLog(ToolEmbedder.class);
+
+    private static volatile ThreadPoolExecutor executor;
+    private static final Object LOCK = new Object();
+
+    private ToolEmbedder() {
+    }
+
+    /**
+     * The embeddings of a set of descriptions being computed in the background.
+     */
+    public static final class Batch {
+        private final List<String> texts;
+        private final double[][] embeddings;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final List<CompletableFuture<Void>> workers = new ArrayList<>();
+
+        private Batch(List<String> texts) {
+            this.texts = texts;
+            this.embeddings = new double[texts.size()][];
+        }
+
+        /**
+         * Waits for all embeddings of the batch.
+         *
+         * @return the embeddings, in the order of the submitted texts
+         * @throws APIManagementException if any of the texts could not be embedded
+         */
+        public List<double[]> join() throws APIManagementException {
+            try {
+                for (CompletableFuture<Void> worker : workers) {
+                    worker.join();
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof APIManagementException) {
+                    throw (APIManagementException) e.getCause();
+                }
+                throw new APIManagementException("Failed to embed tool descriptions", e.getCause());
+            }
+            return Arrays.asList(embeddings);
+        }
+
+        /**
+         * Stops embedding the descriptions that have not been started yet.
+         */
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        private void work(EmbeddingProviderService provider) {
+            int index;
+            while (!cancelled.get() && (index = next.getAndIncrement()) < texts.size()) {
+                try {
+                    embeddings[index] = provider.getEmbedding(texts.get(index));
+                } catch (APIManagementException | RuntimeException e) {
+                    cancelled.set(true);
+                    throw new CompletionException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts embedding the given texts on the shared pool.
+     *
+     * @param provider    the embedding provider
+     * @param texts       the texts to embed
+     * @param parallelism the maximum number of texts of this batch embedded at the same time
+     * @return the batch, to be joined for the embeddings
+     */
+    public static Batch submit(EmbeddingProviderService provider, List<String> texts, int parallelism) {
+        Batch batch = new Batch(texts != null ? texts : Collections.emptyList());
+        int workerCount = Math.min(Math.max(1, parallelism), batch.texts.size());
+        for (int i = 0; i < workerCount; i++) {
+            batch.workers.add(CompletableFuture.runAsync(() -> batch.work(provider), getExecutor()));
+        }
+        if (logger.isDebugEnabled() && workerCount > 0) {
+            logger.debug("Embedding " + batch.texts.size() + " tool descriptions with " + workerCount
+                    + " workers.");
+        }
+        return batch;
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (LOCK) {
+                if (executor == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    int threads = SemanticToolFilteringConstants.TOOL_EMBEDDING_THREADS;
+                    int queueSize = SemanticToolFilteringConstants.TOOL_EMBEDDING_QUEUE_SIZE;
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(queueSize), runnable -> {
+                                Thread thread = new Thread(runnable,
+                                        "SemanticToolEmbedder-" + threadCount.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }, new ThreadPoolExecutor.CallerRunsPolicy());
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apim.policies.mediation.ai.semantic.tool.filtering;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact store of the tool embeddings of a single API.
+ * <p>
+ * Embeddings are held as float32 rows of one contiguous slab and indexed by description hash and
+ * by tool name. Each row is written exactly once: removed rows are left in place until the slab is
+ * full, at which point the live rows are compacted into a new slab. The entries handed out are
+ * therefore zero-copy views that keep reading the same values for as long as they are referenced.
+ * <p>
+ * Tools are evicted in approximate LRU order from an insertion-ordered queue. A tool at the head of
+ * the queue that was accessed since it was queued is moved to the back instead of being evicted.
+ * <p>
+ * The store keeps track of the bytes held by its live entries (see {@link #entryBytes}). Removed rows
+ * and spare slab capacity are not counted; the slab holds at most twice the rows that were live when
+ * it was last compacted.
+ * <p>
+ * {@link #get(String)} and {@link #size()} may be called concurrently with writes, which must be
+ * serialized by the caller. A concurrent lookup sees either the previous or the new view of an entry,
+ * both of which are complete.
+ */
+final class ToolEmbeddingStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, EmbeddingCache.EmbeddingEntry> entriesByHash = new ConcurrentHashMap<>();
+    private final Map<String, String> hashesByName = new HashMap<>();
+    private final LinkedHashMap<String, Long> evictionQueue = new LinkedHashMap<>();
+    private float[] slab = new float[0];
+    private int dimension;
+    private int capacity;
+    private int used;
+    private long bytes;
+
+    /**
+     * Returns the entry stored under the given description hash.
+     *
+     * @param hashKey the SHA-256 hash of the tool description
+     * @return the entry, or null if not found
+     */
+    EmbeddingCache.EmbeddingEntry get(String hashKey) {
+        return entriesByHash.get(hashKey);
+    }
+
+    /**
+     * Returns the number of stored tools.
+     *
+     * @return the number of tools
+     */
+    int size() {
+        return entriesByHash.size();
+    }
+
+    /**
+     * Returns the number of bytes held by the stored tools.
+     *
+     * @return the bytes held
+     */
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Estimates the bytes held by a single entry: its float32 row, the tool name and description hash,
+     * and a fixed allowance for the entry view and its index and queue nodes.
+     *
+     * @param dimension the embedding dimension
+     * @param hashKey   the SHA-256 hash of the tool description
+     * @param name      the tool name, may be null
+     * @return the estimated bytes
+     */
+    static long entryBytes(int dimension, String hashKey, String name) {
+        return (long) dimension * Float.BYTES
+                + SemanticToolFilteringConstants.EMBEDDING_ENTRY_OVERHEAD_BYTES
+                + SemanticToolFilteringConstants.STRING_OVERHEAD_BYTES + hashKey.length()
+                + (name != null ? SemanticToolFilteringConstants.STRING_OVERHEAD_BYTES + name.length() : 0);
+    }
+
+    /**
+     * Stores the embedding of a tool, replacing any entry with the same hash or tool name.
+     * Empty embeddings are ignored. An embedding of a different dimension than the stored ones
+     * (e.g. after the embedding model was changed) clears the store first.
+     *
+     * @param hashKey   the SHA-256 hash of the tool description
+     * @param name      the tool name, may be null
+     * @param embedding the embedding vector
+     */
+    void put(String hashKey, String name, double[] embedding) {
+        if (embedding == null || embedding.length == 0) {
+            return;
+        }
+        remove(hashKey);
+        removeByName(name);
+        if (embedding.length != dimension) {
+            entriesByHash.clear();
+            hashesByName.clear();
+            evictionQueue.clear();
+            bytes = 0;
+            slab = new float[0];
+            dimension = embedding.length;
+            capacity = 0;
+            used = 0;
+        }
+        if (used == capacity) {
+            compact();
+        }
+
+        int offset = used * dimension;
+        double sumSquares = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            float value = (float) embedding[i];
+            slab[offset + i] = value;
+            sumSquares += (double) value * value;
+        }
+        used++;
+
+        EmbeddingCache.EmbeddingEntry entry = new EmbeddingCache.EmbeddingEntry(name, slab, offset, dimension,
+                Math.sqrt(sumSquares));
+        entriesByHash.put(hashKey, entry);
+        evictionQueue.put(hashKey, entry.getLastAccessed());
+        bytes += entryBytes(dimension, hashKey, name);
+        if (name != null) {
+            hashesByName.put(name, hashKey);
+        }
+    }
+
+    /**
+     * Removes the entry stored under the given description hash.
+     *
+     * @param hashKey the SHA-256 hash of the tool description
+     */
+    void remove(String hashKey) {
+        EmbeddingCache.EmbeddingEntry removed = entriesByHash.remove(hashKey);
+        if (removed != null) {
+            evictionQueue.remove(hashKey);
+            bytes -= entryBytes(removed.getDimension(), hashKey, removed.getName());
+            if (removed.getName() != null) {
+                hashesByName.remove(removed.getName(), hashKey);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry of the tool with the given name.
+     *
+     * @param name the tool name, may be null
+     */
+    void removeByName(String name) {
+        if (name == null) {
+            return;
+        }
+        String hashKey = hashesByName.remove(name);
+        if (hashKey != null) {
+            EmbeddingCache.EmbeddingEntry removed = entriesByHash.remove(hashKey);
+            evictionQueue.remove(hashKey);
+            if (removed != null) {
+                bytes -= entryBytes(removed.getDimension(), hashKey, name);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used tool.
+     *
+     * @return the evicted entry, or null if the store is empty
+     */
+    EmbeddingCache.EmbeddingEntry evictLeastRecentlyUsed() {
+        while (!evictionQueue.isEmpty()) {
+            Iterator<Map.Entry<String, Long>> iterator = evictionQueue.entrySet().iterator();
+            Map.Entry<String, Long> eldest = iterator.next();
+            String hashKey = eldest.getKey();
+            long queuedAt = eldest.getValue();
+            iterator.remove();
+
+            EmbeddingCache.EmbeddingEntry entry = entriesByHash.get(hashKey);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.getLastAccessed() > queuedAt) {
+                // Accessed since it was queued - move it to the back of the queue
+                evictionQueue.put(hashKey, entry.getLastAccessed());
+                continue;
+            }
+            remove(hashKey);
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Copies the live rows into a new slab with room for as many rows again, and repoints the
+     * entries at it. The previous slab is left untouched for views that still reference it.
+     */
+    private void compact() {
+        int live = entriesByHash.size();
+        int newCapacity = Math.max(INITIAL_CAPACITY, live * 2);
+        float[] newSlab = new float[newCapacity * dimension];
+        int row = 0;
+        for (Map.Entry<String, EmbeddingCache.EmbeddingEntry> entry : entriesByHash.entrySet()) {
+            int offset = row * dimension;
+            entry.setValue(entry.getValue().copyTo(newSlab, offset));
+            row++;
+        }
+        slab = newSlab;
+        capacity = newCapacity;
+        used = row;
+    }
+}